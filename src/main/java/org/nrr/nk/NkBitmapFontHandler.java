@@ -31,13 +31,18 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package org.nrr.nk;
 
 import com.jme3.asset.AssetManager;
-import com.jme3.font.BitmapCharacter;
-import com.jme3.font.BitmapCharacterSet;
 import com.jme3.font.BitmapFont;
+import com.jme3.math.ColorRGBA;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.texture.Texture2D;
+import com.jme3.texture.image.ImageRaster;
+import com.jme3.util.BufferUtils;
+
+import java.nio.ByteBuffer;
 
 import org.lwjgl.nuklear.NkUserFont;
-import org.lwjgl.nuklear.NkUserFontGlyph;
-import static org.lwjgl.system.MemoryUtil.*;
+import org.lwjgl.nuklear.NkVec2;
 
 /**
  * An interface that handles a source for Nuklear.
@@ -64,12 +69,26 @@ public interface NkBitmapFontHandler {
      */
     NkUserFont userFont();
     
+    /**
+     * Returns the texture coordinates of the white texel reserved in the font
+     * texture, so that shapes can be drawn with the same texture as the text;
+     * {@code null} if the font has no room for it.
+     * 
+     * @return NkVec2
+     */
+    default NkVec2 whiteTexel() {
+        return null;
+    }
+    
     /**
      * Class responsible for managing the builder of the {@code NkBitmapFontHandler}
      * interface.
      */
     public static class Builder {
         
+        /** Columns added to the font page for the white texels. */
+        private static final int WHITE_STRIP = 4;
+        
         /**
          * The font that will be used to create the text font controller for
          * {@code Nuklear}.
@@ -95,6 +114,9 @@ public interface NkBitmapFontHandler {
         private float size = -1;
         /** The scale is based on the font size. */
         private float scale = 1.0f;
+        /** Texture coordinates of the white texel of the font page. */
+        private NkVec2 whiteTexel;
+
         
         /** Constructor of the class <code>Builder</code>. */
         private Builder() {}
@@ -179,43 +201,98 @@ public interface NkBitmapFontHandler {
                 size = font.getCharSet().getLineHeight();
             }
             if (userFont == null) {
+                Texture texture = font.getPage(page).getTextureParam("ColorMap").getTextureValue();
+                int textureWidth = font.getCharSet().getWidth();
+                Texture baked = bakeWhiteTexel(texture);
+                if (baked != null) {
+                    texture      = baked;
+                    textureWidth = baked.getImage().getWidth();
+                }
+                
                 userFont = NkUserFont.create();
                 scale = size / font.getCharSet().getRenderedSize();
                 
-                userFont.width((handle, h, text, len) -> {
-                    String str = memUTF8(text, len);
-                    return font.getLineWidth(str) * scale;
-                })
+                // the queries and the widths only read the metrics computed here
+                NkGlyphCache glyphs = new NkGlyphCache(font, scale, textureWidth);
+                
+                userFont.width((handle, h, text, len) -> glyphs.width(text, len))
                 .height(font.getCharSet().getLineHeight() * scale)
                 .query((handle, font_height, glyph, codepoint, next_codepoint) -> {
-                    BitmapCharacterSet characterSet = font.getCharSet();
-                    BitmapCharacter character = characterSet.getCharacter(codepoint);
-
-                    if (character != null) {
-                        NkUserFontGlyph ufg = NkUserFontGlyph.create(glyph);
-
-                        ufg.width(character.getWidth() * scale);
-                        ufg.height(character.getHeight() * scale);
-                        ufg.offset().set(character.getXOffset() * scale, character.getYOffset() * scale);
-                        ufg.xadvance(font.getCharacterAdvance((char) codepoint, (char) next_codepoint, scale));
-
-                        float u0 = (float) character.getX() / characterSet.getWidth();
-                        float v0 = (float) character.getY() / characterSet.getHeight();
-                        float u1 = u0 + (float) character.getWidth() / characterSet.getWidth();
-                        float v1 = v0 + (float) character.getHeight() / characterSet.getHeight();
-
-                        ufg.uv(0).set(u0, v0);
-                        ufg.uv(1).set(u1, v1);
-                    }
+                    glyphs.query(glyph, codepoint, next_codepoint);
                 })
                 .texture(
                     NkTextureHandler.builder()
                                             .display(display)
-                                            .handle(font.getPage(page).getTextureParam("ColorMap").getTextureValue())
+                                            .handle(texture)
                                             .build()
                 );
             }
-            return () -> userFont;
+            return new NkBitmapFontHandler() {
+                @Override
+                public NkUserFont userFont() {
+                    return userFont;
+                }
+                @Override
+                public NkVec2 whiteTexel() {
+                    return whiteTexel;
+                }
+            };
+        }
+        
+        /**
+         * Returns a copy of the font texture with a strip of columns added to
+         * its right, where a block of 3x3 white texels is written (sampling its
+         * center is not affected by filtering); the texture of the font is 
+         * shared through the cache of the asset manager, so it is not modified.
+         * The texture coordinates of the center of the block are kept in
+         * {@code whiteTexel}.
+         * 
+         * @param texture the font texture
+         * @return the copy, or {@code null} if the pixels of the texture cannot
+         * be read
+         */
+        private Texture bakeWhiteTexel(Texture texture) {
+            Image image = texture.getImage();
+            if (image == null || image.getData(0) == null) {
+                return null;
+            }
+            ImageRaster raster;
+            try {
+                raster = ImageRaster.create(image);
+            } catch (UnsupportedOperationException e) {
+                return null;
+            }
+            
+            int width  = image.getWidth();
+            int height = image.getHeight();
+            int stride = width + WHITE_STRIP;
+            ByteBuffer data = BufferUtils.createByteBuffer(stride * height * 4);
+            
+            ColorRGBA color = new ColorRGBA();
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    raster.getPixel(x, y, color);
+                    data.put((byte) (color.r * 255f + 0.5f))
+                        .put((byte) (color.g * 255f + 0.5f))
+                        .put((byte) (color.b * 255f + 0.5f))
+                        .put((byte) (color.a * 255f + 0.5f));
+                }
+                // the rows of the image start at the bottom, the block is on
+                // the second to fourth rows from the top, after a free column
+                boolean block = y >= height - 4 && y < height - 1;
+                data.putInt(0);
+                for (int x = 1; x < WHITE_STRIP; x++) {
+                    data.putInt(block ? 0xFFFFFFFF : 0);
+                }
+            }
+            data.flip();
+            
+            Texture2D copy = new Texture2D(new Image(Image.Format.RGBA8, stride, height, data, image.getColorSpace()));
+            copy.setMagFilter(texture.getMagFilter());
+            copy.setMinFilter(texture.getMinFilter());
+            
+            whiteTexel = NkVec2.create().set((width + 2.5f) / stride, 2.5f / height);
+            return copy;
         }
     }
 }
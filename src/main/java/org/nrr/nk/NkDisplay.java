@@ -32,11 +32,14 @@ package org.nrr.nk;
 
 import com.jme3.asset.AssetManager;
 import com.jme3.input.InputManager;
+import com.jme3.material.Material;
+import com.jme3.material.MatParamTexture;
 import com.jme3.post.SceneProcessor;
 import com.jme3.profile.AppProfiler;
 import com.jme3.renderer.Camera;
 import com.jme3.renderer.RenderManager;
 import com.jme3.renderer.Renderer;
+import com.jme3.renderer.TextureUnitException;
 import com.jme3.renderer.ViewPort;
 import com.jme3.renderer.queue.RenderQueue;
 import com.jme3.scene.VertexBuffer;
@@ -53,6 +56,11 @@ import org.nrr.nk.system.*;
 
 import java.nio.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.lwjgl.nuklear.Nuklear.*;
 import static org.lwjgl.system.MemoryStack.*;
@@ -67,6 +75,28 @@ import static org.lwjgl.system.MemoryUtil.*;
  */
 public final class NkDisplay implements SceneProcessor {
     
+    /**
+     * Modes in which the buffers converted by Nuklear are sent to the GPU.
+     */
+    public static enum RenderMode {
+        /**
+         * Each draw command uploads its own vertices and elements (default).
+         */
+        COMMAND,
+        
+        /**
+         * The converted vertices are uploaded once per frame and each draw
+         * command is rendered as a range of the shared element buffer.
+         */
+        FRAME,
+        
+        /**
+         * Like {@link #FRAME}, but the vertices are uploaded exactly as Nuklear
+         * writes them, without any conversion on the CPU.
+         */
+        INTERLEAVED
+    }
+    
     /** initial buffer amount. */
     private static final int BUFFER_INITIAL_SIZE = 4 * 1024;
 
@@ -76,20 +106,16 @@ public final class NkDisplay implements SceneProcessor {
     private static final int MAX_ELEMENT_BUFFER = 128 * 1024;
     /** Number of vertices per segment. */
     private static final int MAX_VERTEX_SIZE    = 20;
+    /** Number of vertices that a 16-bit element can address. */
+    private static final int MAX_SHORT_VERTICES = 0x10000;
 
     //===--------------------------------------------------------------------===
     //                      Nuklear dynamic memory
     //===--------------------------------------------------------------------===
-    /** memory manager. */
-    private static final NkAllocator ALLOCATOR;
     /** Vertex buffer configuration. */
     private static final NkDrawVertexLayoutElement.Buffer VERTEX_LAYOUT;
 
     static {
-        ALLOCATOR = NkAllocator.create()
-            .alloc((handle, old, size) -> nmemAllocChecked(size))
-            .mfree((handle, ptr) -> nmemFree(ptr));
-
         VERTEX_LAYOUT = NkDrawVertexLayoutElement.create(4)
             .position(0).attribute(NK_VERTEX_POSITION).format(NK_FORMAT_FLOAT).offset(0)
             .position(1).attribute(NK_VERTEX_TEXCOORD).format(NK_FORMAT_FLOAT).offset(8)
@@ -107,6 +133,8 @@ public final class NkDisplay implements SceneProcessor {
     private final NkBuffer  cmds = NkBuffer.create();
     /** Null texture used by nuklea by default. */
     private final NkDrawNullTexture nullTexture = NkDrawNullTexture.create();
+    /** Identifier of the texture of 1x1 used when the font has no white texel. */
+    private int nullTextureId;
     
     /**
      * List of designs where the user interface components are located, ready to
@@ -114,7 +142,11 @@ public final class NkDisplay implements SceneProcessor {
      */
     private final List<NkRender> renders    = new ArrayList<>();
     /** Texture map that Nuklear uses for graphing within the backend. */
-    private final IntMap<Texture> textures  = new IntMap<>();
+    private final NkTextureRegistry textures;
+    /** Resources shared with other displays. */
+    private final NkResourceHub hub;
+    /** Loaders whose textures are uploaded before drawing. */
+    private final List<NkTextureLoader> textureLoaders = new ArrayList<>();
     
     /** Input manager for nuklear. */
     private NkInputListener inputSys;
@@ -122,6 +154,8 @@ public final class NkDisplay implements SceneProcessor {
     private NkClipboardHandler clipboard;
     /** Default font. */
     private NkBitmapFontHandler fontHandler;
+    /** Font applied to the context, referenced in the hub. */
+    private NkBitmapFontHandler appliedFont;
     /** Loaded theme. */
     private NkThemeHandler themeHandler;
     
@@ -132,23 +166,127 @@ public final class NkDisplay implements SceneProcessor {
     private ByteBuffer vertices;
     /** Elements buffer. */
     private ByteBuffer elements;
+    /** Elements of the last frame converted, restored to 32 bits. */
+    private IntBuffer wideElements;
+    /** Number of elements of the last frame converted. */
+    private int elementCount;
+    /**
+     * Flag indicating whether the last frame converted has more vertices than
+     * a 16-bit element can address.
+     */
+    private boolean wideIndices;
     
     /**
      * Dedicated buffer grouping for drawing elements.
      */
-    private final BufferPool<ShortBuffer> indexPool = new BufferPool<>(ShortBuffer.class);
+    private final BufferPool<ShortBuffer> indexPool;
+    /**
+     * Dedicated buffer grouping for the commands whose vertices do not fit in
+     * 16-bit elements.
+     */
+    private final BufferPool<IntBuffer> wideIndexPool;
     /**
      * Grouping of vertices by drawing segment
      */
-    private final ObjectPool<Vertex> vertexPool = new VertexPool();
+    private final ObjectPool<Vertex> vertexPool;
+    
+    /** Draws of the current frame. */
+    private final DrawList drawList = new DrawList();
+    /** Counters of the last frame drawn. */
+    private final NkRenderStats renderStats = new NkRenderStats();
+    
+    /** Copy of the Nuklear command list of the last frame drawn. */
+    private ByteBuffer lastCommands;
+    /** Number of vertices of the last frame converted. */
+    private int vertexCount;
+    /**
+     * Flag indicating whether the render buffers still hold the last frame
+     * converted, so an identical frame can be drawn again without converting it.
+     */
+    private boolean converted;
+    /** Flag indicating whether unchanged frames skip the conversion. */
+    private boolean skipUnchanged = true;
+    
+    /** Offscreen layer where the user interface is cached. */
+    private NkLayer cacheLayer;
+    /** Flag indicating whether the user interface is cached in a texture. */
+    private boolean textureCache;
+    
+    /** Layers of the windows refreshed at their own interval, by name. */
+    private final Map<String, NkLayer> windowLayers = new HashMap<>();
+    /** Layers of the windows, by the tag of their commands. */
+    private final IntMap<NkLayer> taggedLayers = new IntMap<>();
+    /** Tag given to the next layer of a window. */
+    private int nextLayerTag = NkLayer.NO_TAG + 1;
+    
+    /** Origin of the area being drawn, in Nuklear coordinates (x). */
+    private float viewX;
+    /** Origin of the area being drawn, in Nuklear coordinates (y). */
+    private float viewY;
+    /** Width of the area being drawn, in Nuklear coordinates. */
+    private float viewWidth = 1;
+    /** Height of the area being drawn, in Nuklear coordinates. */
+    private float viewHeight = 1;
+    
+    /** Texture applied to the material by the last draw. */
+    private Texture lastTexture;
+    /** Clipping rectangle applied by the last draw (x, y, width, height). */
+    private final int[] lastClip = new int[4];
+    /** Flag indicating whether a texture was applied in the current pass. */
+    private boolean textureApplied;
+    /** Flag indicating whether a clipping rectangle was applied in the current pass. */
+    private boolean clipApplied;
+    /**
+     * Flag indicating whether the material was applied by a draw of the
+     * current pass, so the next draws only need to change the texture.
+     */
+    private boolean materialApplied;
+    /** Flag indicating whether draws reuse the material applied by the first draw of a pass. */
+    private boolean leanDraws = true;
     
     /** Drawing geometry. */
     private NkGeometry drawable;
+    /**
+     * Ring of drawing geometries; each upload is written into the next one so
+     * the GPU can still read the previous ones without synchronizing.
+     */
+    private NkGeometry[] drawables;
+    /** Index of the current geometry within the ring. */
+    private int ringIndex;
+    /** Number of geometries in the ring. */
+    private int ringSize = 1;
     /** Drawing view. */
     private ViewPort viewPort;
     
     /** Buffer configuration. */
     private BufferConfig bufferConfig;
+    /** Mode used to upload and draw the Nuklear buffers. */
+    private RenderMode renderMode = RenderMode.COMMAND;
+    /** Tessellation quality used when there is no governor. */
+    private QualityProfile qualityProfile = QualityProfile.high();
+    /** Governor that adapts the tessellation quality to the frame time. */
+    private QualityGovernor governor;
+    /**
+     * Worker thread that builds and converts the next frame while the render
+     * thread goes on with the current one; {@code null} when not pipelined.
+     */
+    private ExecutorService worker;
+    /** Thread of the worker, {@code null} until it is started. */
+    private volatile Thread workerThread;
+    /** Frame being built by the worker thread. */
+    private volatile Future<?> pendingFrame;
+    /** Work with GL requested by the worker thread, done by the render thread. */
+    private final Queue<Runnable> renderTasks = new ConcurrentLinkedQueue<>();
+    /** Flag indicating whether the user interface is built on a worker thread. */
+    private boolean pipelined;
+    /** Flag indicating whether the frame built by the worker was converted by it. */
+    private boolean frameConverted;
+    /** Flag indicating whether the frame built by the worker reuses the previous buffers. */
+    private boolean frameReused;
+    /** Time spent by the worker converting its frame, in milliseconds. */
+    private float frameConvertTime;
+    /** Time per frame of the last update. */
+    private float lastTpf;
     /** Rendering Manager. */
     private RenderManager renderManager;
     /** Asset Manager. */
@@ -192,11 +330,33 @@ public final class NkDisplay implements SceneProcessor {
      * @param bufferConfig BufferConfig
      */
     public NkDisplay(AssetManager assetManager, InputManager inputManager, RenderManager renderManager, BufferConfig bufferConfig) {
+        this(assetManager, inputManager, renderManager, bufferConfig, NkResourceHub.createPrivate(assetManager));
+    }
+    
+    /**
+     * Generate a new backend for Nuklear using the <code>NkDisplay</code> class,
+     * sharing the fonts, textures, pools and allocator of a hub with other
+     * displays.
+     * 
+     * @param assetManager AssetManager
+     * @param inputManager InputManager
+     * @param renderManager RenderManager
+     * @param bufferConfig BufferConfig
+     * @param hub NkResourceHub
+     */
+    public NkDisplay(AssetManager assetManager, InputManager inputManager, RenderManager renderManager, BufferConfig bufferConfig, NkResourceHub hub) {
         this.assetManager  = assetManager;
         this.inputManager  = inputManager;
         this.renderManager = renderManager;
         this.bufferConfig  = bufferConfig;
         this.clipboard     = NkDefaultClipboardHandler.getInstance();
+        
+        this.hub           = hub;
+        this.textures      = hub.getTextures();
+        this.indexPool     = hub.getIndexPool();
+        this.wideIndexPool = hub.getWideIndexPool();
+        this.vertexPool    = hub.getVertexPool();
+        hub.retain();
     }
     
     /*(non-Javadoc)
@@ -204,7 +364,7 @@ public final class NkDisplay implements SceneProcessor {
     @Override
     public void initialize(RenderManager rm, ViewPort vp) {
         inputSys = new NkInputListener(inputManager);
-        drawable = new NkGeometry(assetManager, false);
+        cacheLayer = new NkLayer(assetManager);
         if (inputManager != null) {
             inputManager.addRawInputListener(inputSys);
         }
@@ -213,12 +373,14 @@ public final class NkDisplay implements SceneProcessor {
         height        = vp.getCamera().getHeight();
         viewPort      = vp;
         renderManager = rm;
+        createDrawables();
         
         inputSys.setContext(ctx);     
         inputSys.setHeight((int) height);
         inputSys.reset();
+        inputSys.setQueued(pipelined);
 
-        nk_init(ctx, ALLOCATOR, null);
+        nk_init(ctx, hub.getAllocator(), null);
         ctx.clip()
             .copy((handle, text, len) -> {
                 clipboard.copy(text, len);
@@ -226,34 +388,21 @@ public final class NkDisplay implements SceneProcessor {
             .paste((handle, edit) -> {
                 clipboard.paste(edit);
             });        
-        nk_buffer_init(cmds, ALLOCATOR, BUFFER_INITIAL_SIZE);
+        nk_buffer_init(cmds, hub.getAllocator(), BUFFER_INITIAL_SIZE);
 
-        /* Configure the null texture, preloading a geometry into the renderer 
-         * to obtain the texture ID.
+        /* Configure the null texture, preloaded once by the hub to obtain the
+         * texture ID.
          */
-        NkGeometry nktmp = new NkGeometry(assetManager, true);
-        rm.preloadScene(nktmp);
-        
-        Texture nullTex = nktmp.getMaterial()
-                            .getTextureParam("ColorMap")
-                            .getTextureValue();
-        
-        int nullTexID = nullTex.getImage().getId();        
-        textures.put(nullTexID, nullTex);
+        nullTextureId = textures.getId(hub.getNullTexture(rm));
         
-        nullTexture.texture().id(nullTexID);
+        nullTexture.texture().id(nullTextureId);
         nullTexture.uv().set(0.5f, 0.5f);
         
         /* Set the text font as well as the theme of the user interface
          * components.
          */
         if (fontHandler == null) {
-            fontHandler = NkBitmapFontHandler.builder()
-                                .display(this)
-                                .assetManager(assetManager)
-                                .font("Interface/Fonts/Default.fnt")
-                                .size(14)
-                                .build();
+            fontHandler = hub.getDefaultFont(this);
         }
         applyDefaultStyleFont(null, fontHandler);
         if (themeHandler != null) {
@@ -285,20 +434,25 @@ public final class NkDisplay implements SceneProcessor {
      * @param newFont NkBitmapFontHandler
      */
     private void applyDefaultStyleFont(NkBitmapFontHandler currentFont, NkBitmapFontHandler newFont) {
+        // the font is freed when no display of the hub uses it
+        hub.acquireFont(newFont);
         if (currentFont != null) {
-            NkUserFont userFont = currentFont.userFont();
-            NkQueryFontGlyphCallback queryFontGlyphCallback  = userFont.query();
-            if (queryFontGlyphCallback != null) {
-                queryFontGlyphCallback.free();
-            }
-
-            NkTextWidthCallback widthCallback = userFont.width();
-            if (widthCallback != null) {
-                widthCallback.free();
-            }
-            removeTexture(userFont.texture().id());
+            hub.releaseFont(currentFont);
         }
+        appliedFont = newFont;
         nk_style_set_font(ctx, newFont.userFont());
+        
+        /* Shapes use the white texel of the font when it has one, so that
+         * they share the texture with the text and are drawn together.
+         */
+        NkVec2 white = newFont.whiteTexel();
+        if (white != null) {
+            nullTexture.texture().id(newFont.userFont().texture().id());
+            nullTexture.uv().set(white);
+        } else {
+            nullTexture.texture().id(nullTextureId);
+            nullTexture.uv().set(0.5f, 0.5f);
+        }
     }
 
     /**
@@ -343,62 +497,224 @@ public final class NkDisplay implements SceneProcessor {
     }
     
     /**
-     * Add a new texture to the map so that the backend has it referenced.
+     * Add a new texture to the registry so that the backend has it referenced;
+     * adding a texture already registered does nothing, so it is removed by a
+     * single {@code removeTexture}. A texture shared by several owners must
+     * be counted with {@link #retainTexture(Texture)} instead.
      * 
      * @param texture Texture
-     * @return boolean
+     * @return {@code true} if the texture was not registered
      */
     public boolean addTexture(Texture texture) {
         return addTexture(texture.getImage().getId(), texture);
     }
     
     /**
-     * Add a new texture to the map so that the backend has it referenced.
+     * Add a new texture to the registry so that the backend has it referenced;
+     * adding a texture already registered does nothing, so it is removed by a
+     * single {@code removeTexture}. A texture shared by several owners must
+     * be counted with {@link #retainTexture(int, Texture)} instead.
      * 
-     * @param id int
+     * @param id identifier of the handles, if the texture is not registered
      * @param texture Texture
-     * @return boolean
+     * @return {@code true} if the texture was not registered
      */
     public boolean addTexture(int id, Texture texture) {
-        if (!this.textures.containsKey(id)) {
-            this.textures.put(id, texture);
+        return this.textures.registerOnce(id, texture);
+    }
+    
+    /**
+     * Register a new handle of a texture; each call must be paired with a
+     * {@link #releaseTexture(Texture)}, and the texture is forgotten (and can
+     * no longer be evicted) when its last handle is released.
+     * 
+     * @param texture Texture
+     * @return the identifier of the handles of the texture
+     */
+    public int retainTexture(Texture texture) {
+        return retainTexture(texture.getImage().getId(), texture);
+    }
+    
+    /**
+     * Register a new handle of a texture; each call must be paired with a
+     * {@link #releaseTexture(Texture)}.
+     * 
+     * @param id identifier of the handles, if the texture is not registered
+     * @param texture Texture
+     * @return the identifier of the handles of the texture
+     */
+    public int retainTexture(int id, Texture texture) {
+        return this.textures.register(id, texture);
+    }
+    
+    /**
+     * Release a handle of a texture registered by {@link #retainTexture(Texture)}
+     * or added by {@link #addTexture(Texture)}.
+     * 
+     * @param texture Texture
+     * @return {@code true} if it was the last handle and the texture was forgotten
+     */
+    public boolean releaseTexture(Texture texture) {
+        return texture != null && this.textures.release(texture);
+    }
+    
+    /**
+     * Returns the identifier that the handles of a texture must use.
+     * 
+     * @see NkTextureRegistry#getId(com.jme3.texture.Texture)
+     * 
+     * @param texture Texture
+     * @return int
+     */
+    public int getTextureId(Texture texture) {
+        return textures.getId(texture);
+    }
+    
+    /**
+     * Returns the registry of the textures drawn, shared by the displays of
+     * the hub.
+     * 
+     * @return NkTextureRegistry
+     */
+    public NkTextureRegistry getTextureRegistry() {
+        return textures;
+    }
+    
+    /**
+     * Upload a texture through the renderer, if it has not been uploaded yet,
+     * and register a new handle of it, as {@link #retainTexture(Texture)} does.
+     * <p>
+     * Called from the worker thread of a pipelined display, the texture is
+     * added right away (with an identifier of its own) and uploaded by the
+     * render thread before the frame is drawn.
+     * </p>
+     * 
+     * @param texture Texture
+     * @return {@code false} if the renderer could not upload the texture
+     */
+    public boolean uploadTexture(Texture texture) {
+        Image image = texture.getImage();
+        if (image.getId() == -1 || image.isUpdateNeeded()) {
+            if (isWorkerThread()) {
+                runOnRenderThread(() -> bindTexture(texture));
+            } else if (!bindTexture(texture)) {
+                return false;
+            }
+        }
+        retainTexture(texture);
+        return true;
+    }
+    
+    /**
+     * Bind a texture, which uploads its image if needed.
+     * 
+     * @param texture Texture
+     * @return {@code false} if the renderer could not bind the texture
+     */
+    private boolean bindTexture(Texture texture) {
+        try {
+            renderManager.getRenderer().setTexture(0, texture);
             return true;
+        } catch (TextureUnitException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Returns {@code true} if the calling thread is the worker thread of a
+     * pipelined display, which must not use GL.
+     * 
+     * @return boolean
+     */
+    boolean isWorkerThread() {
+        return Thread.currentThread() == workerThread;
+    }
+    
+    /**
+     * Run a task that uses GL: right away on the render thread, or by the
+     * render thread before drawing the frame if called from the worker thread.
+     * 
+     * @param task Runnable
+     */
+    void runOnRenderThread(Runnable task) {
+        if (isWorkerThread()) {
+            renderTasks.add(task);
+        } else {
+            task.run();
+        }
+    }
+    
+    /**
+     * Run the tasks requested by the worker thread.
+     */
+    private void runRenderTasks() {
+        for (Runnable task = renderTasks.poll(); task != null; task = renderTasks.poll()) {
+            task.run();
         }
-        return false;
     }
     
     /**
-     * Remove a reference in the texture map.
+     * Upload several textures through the renderer and register a new handle
+     * of each of them.
+     * 
+     * @param textures the textures
+     * @return number of textures uploaded and added
+     */
+    public int uploadTextures(Collection<? extends Texture> textures) {
+        int count = 0;
+        for (Texture texture : textures) {
+            if (uploadTexture(texture)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Remove a handle from the texture registry; a texture added several
+     * times by {@link #addTexture(Texture)} holds a single handle.
      *
      * @param id id
      */
     public void removeTexture(int id) {
-        this.textures.remove(id);
+        this.textures.release(id);
     }
     
     /**
-     * Remove a reference in the texture map.
+     * Remove a handle from the texture registry; a texture added several
+     * times by {@link #addTexture(Texture)} holds a single handle.
      * 
      * @param texture Texture
      */
     public void removeTexture(Texture texture) {
-        if (texture == null) {
-            return;
-        }
-        Image image = texture.getImage();
-        if (image == null) {
-            return;
-        }
-        int textureId = image.getId();
-        if (textureId == -1) {
-            for (IntMap.Entry<Texture> next : this.textures) {
-                if (texture.equals(next.getValue())) {
-                    this.textures.remove(next.getKey());
-                    break;
-                }
-            }
-        } else {
-            this.textures.remove(textureId);
+        releaseTexture(texture);
+    }
+    
+    /**
+     * Register a loader whose textures are uploaded before drawing.
+     * 
+     * @param loader NkTextureLoader
+     */
+    void addTextureLoader(NkTextureLoader loader) {
+        textureLoaders.add(loader);
+    }
+    
+    /**
+     * Remove a loader registered.
+     * 
+     * @param loader NkTextureLoader
+     */
+    void removeTextureLoader(NkTextureLoader loader) {
+        textureLoaders.remove(loader);
+    }
+    
+    /**
+     * Upload the textures loaded in the background within the budget of each
+     * loader.
+     */
+    private void updateTextureLoaders() {
+        for (int i = 0; i < textureLoaders.size(); i++) {
+            textureLoaders.get(i).update();
         }
     }
     
@@ -442,100 +758,1042 @@ public final class NkDisplay implements SceneProcessor {
     }
     
     /**
-     * Set a new clipboard manager
+     * Sets the mode used to upload and draw the Nuklear buffers.
      * 
-     * @see org.nrr.nk.NkDefaultClipboardHandler
-     * @see org.nrr.nk.awt.NkToolkitHandler
+     * @param renderMode RenderMode
+     */
+    public void setRenderMode(RenderMode renderMode) {
+        if (renderMode == null) {
+            throw new NullPointerException("The rendering mode cannot be null");
+        }
+        if (this.renderMode == renderMode) {
+            return;
+        }
+        this.renderMode = renderMode;
+        if (isInitialized()) {
+            createDrawables();
+        }
+    }
+    
+    /**
+     * Sets the number of geometries used in turn to upload the Nuklear buffers
+     * (use {@code 3} for triple buffering); with {@code 1} the same buffers are
+     * updated on every upload.
      * 
-     * @param clipboard NkClipboardHandler
+     * @param ringSize int
      */
-    public void setClipboard(NkClipboardHandler clipboard) {
-        if (this.clipboard != null) {
-            this.clipboard.free();
+    public void setRingSize(int ringSize) {
+        if (ringSize < 1) {
+            throw new IllegalArgumentException("The ring needs at least one geometry");
+        }
+        if (this.ringSize == ringSize) {
+            return;
+        }
+        this.ringSize = ringSize;
+        if (isInitialized()) {
+            createDrawables();
         }
-        this.clipboard = clipboard;
     }
 
-    /*(non-Javadoc)
+    /**
+     * Returns the value of the attribute: ringSize
+     * @return int
      */
-    @Override
-    public void reshape(ViewPort vp, int w, int h) {
-        inputSys.setHeight(h);
-        viewPort = vp;
-        width    = w;
-        height   = h;
+    public int getRingSize() {
+        return ringSize;
     }
-
-    /*(non-Javadoc)
+    
+    /**
+     * Create the ring of drawing geometries for the current mode; all of them
+     * share the same material. The buffers of the previous ring are deleted.
      */
-    @Override
-    public void rescale(ViewPort vp, float x, float y) {
-        xScale = x;
-        yScale = y;
+    private void createDrawables() {
+        deleteDrawables();
+        drawables = new NkGeometry[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            drawables[i] = new NkGeometry(assetManager, new NkMesh(renderMode), false);
+            if (i > 0) {
+                drawables[i].setMaterial(drawables[0].getMaterial());
+            }
+        }
+        
+        ringIndex = 0;
+        drawable  = drawables[0];
+        converted = false;
+        setView(0, 0, width, height);
     }
-
-    /*(non-Javadoc)
+    
+    /**
+     * Delete the buffers of the ring of drawing geometries from the GPU.
      */
-    @Override
-    public boolean isInitialized() {
-        return initialized;
+    private void deleteDrawables() {
+        if (drawables == null) {
+            return;
+        }
+        Renderer renderer = renderManager.getRenderer();
+        for (NkGeometry geometry : drawables) {
+            ((NkMesh) geometry.getMesh()).deleteBuffers(renderer);
+        }
+    }
+    
+    /**
+     * Advance to the next geometry of the ring; the buffers its mesh replaced
+     * in its previous uploads are deleted.
+     * 
+     * @return the mesh where the next upload is written
+     */
+    private NkMesh nextMesh() {
+        if (drawables.length > 1) {
+            ringIndex = (ringIndex + 1) % drawables.length;
+            drawable  = drawables[ringIndex];
+        }
+        NkMesh mesh = (NkMesh) drawable.getMesh();
+        mesh.deleteDiscarded(renderManager.getRenderer());
+        return mesh;
     }
 
-    /*(non-Javadoc)
+    /**
+     * Returns the value of the attribute: renderMode
+     * @return RenderMode
      */
-    @Override
-    public void preFrame(float tpf) {
-        for (final NkRender nrk : renders) {
-            nrk.handle(ctx, this, tpf);
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+    
+    /**
+     * Sets whether consecutive drawing commands that share the same texture
+     * and clipping rectangle are merged into a single draw.
+     * 
+     * @param merge boolean
+     */
+    public void setMergeCommands(boolean merge) {
+        drawList.merge(merge);
+    }
+    
+    /**
+     * Sets whether the user interface is built on a worker thread, pipelined
+     * with the render thread.
+     * <p>
+     * When enabled, the input events are queued and the next frame is built
+     * (the {@link NkRender} handlers are called) and converted by the worker
+     * thread as soon as the current one has been drawn, overlapping with the
+     * rest of the frame of the application; the user interface is therefore
+     * drawn one frame late. The context is only used by the render thread
+     * between both frames, so the handlers must not modify the scene graph,
+     * and the context must only be changed from the handlers while enabled
+     * ({@link #getContext()} fails on other threads while a frame is built).
+     * The windows with their own refresh interval and the texture cache are
+     * converted on the render thread.
+     * </p>
+     * <p>
+     * The handlers must not use GL either: {@link #uploadTexture(Texture)},
+     * {@link NkTextureHandler}, {@link NkTextureAtlas} and 
+     * {@link NkTextureLoader} can be used from them, as they leave their work 
+     * with GL to the render thread, which does it before drawing the frame; 
+     * the renderer must not be used directly.
+     * </p>
+     * 
+     * @param pipelined boolean
+     */
+    public void setPipelined(boolean pipelined) {
+        if (this.pipelined == pipelined) {
+            return;
+        }
+        if (!pipelined) {
+            stopWorker();
+        }
+        this.pipelined = pipelined;
+        if (inputSys != null) {
+            inputSys.setQueued(pipelined);
         }
     }
 
-    /*(non-Javadoc)
+    /**
+     * Returns the value of the attribute: pipelined
+     * @return boolean
      */
-    @Override
-    public void postQueue(RenderQueue rq) {        
-        Camera camera = viewPort.getCamera(); 
-        renderManager.setCamera(camera, true);
-        render(NK_ANTI_ALIASING_ON);        
-        renderManager.setCamera(camera, false);
+    public boolean isPipelined() {
+        return pipelined;
     }
     
     /**
-     * Method responsible for reading the drawing buffers provided by Nuklear,
-     * where they are broken down into the buffers required by JME3 to draw a
-     * geometry.
+     * Sets whether the draws of a pass reuse the shader, uniforms and render
+     * state applied by its first draw, only binding the texture and drawing the
+     * mesh, instead of going through {@code RenderManager.renderGeometry} for
+     * each draw. The time spent drawing is available in {@link #getRenderStats()}
+     * to compare both paths.
      * 
-     * @param AA int
+     * @param leanDraws boolean
      */
-    private void render(int AA) {
-        checkNkBuffers();        
-        try (MemoryStack stack = stackPush()) {
-            // fill convert configuration
-            NkConvertConfig config = NkConvertConfig.calloc(stack)
-                .vertex_layout(VERTEX_LAYOUT)
-                .vertex_size(MAX_VERTEX_SIZE)
-                .vertex_alignment(4)
-                .tex_null(nullTexture)
-                .circle_segment_count(22)
-                .curve_segment_count(22)
-                .arc_segment_count(22)
-                .global_alpha(1.0f)
-                .shape_AA(AA)
-                .line_AA(AA);
+    public void setLeanDraws(boolean leanDraws) {
+        this.leanDraws = leanDraws;
+    }
 
-            // setup buffers to load vertices and elements
-            NkBuffer vbuf = NkBuffer.malloc(stack);
-            NkBuffer ebuf = NkBuffer.malloc(stack);
+    /**
+     * Returns the value of the attribute: leanDraws
+     * @return boolean
+     */
+    public boolean isLeanDraws() {
+        return leanDraws;
+    }
+    
+    /**
+     * Sets whether a frame whose Nuklear command list is identical to the
+     * previous one is drawn again from the buffers already converted, skipping
+     * {@code nk_convert} and the upload of its vertices.
+     * 
+     * @param skipUnchanged boolean
+     */
+    public void setSkipUnchanged(boolean skipUnchanged) {
+        this.skipUnchanged = skipUnchanged;
+    }
 
-            nk_buffer_init_fixed(vbuf, vertices/*, max_vertex_buffer*/);
-            nk_buffer_init_fixed(ebuf, elements/*, max_element_buffer*/);
-            nk_convert(ctx, cmds, vbuf, ebuf, config);
-        }
-        
-        ShortBuffer elebuff = elements.asShortBuffer();
-        Renderer renderer   = renderManager.getRenderer();
+    /**
+     * Returns the value of the attribute: skipUnchanged
+     * @return boolean
+     */
+    public boolean isSkipUnchanged() {
+        return skipUnchanged;
+    }
+    
+    /**
+     * Sets whether the user interface is rendered into an offscreen texture
+     * that is only regenerated when the Nuklear command list changes; on the
+     * other frames the cached texture is composited with a single quad.
+     * <p>
+     * The cache does not know when the content of a texture used by the
+     * interface changes, in that case {@link #invalidate()} must be called.
+     * </p>
+     * 
+     * @param textureCache boolean
+     */
+    public void setTextureCache(boolean textureCache) {
+        if (this.textureCache != textureCache) {
+            this.textureCache = textureCache;
+            invalidate();
+        }
+    }
+
+    /**
+     * Returns the value of the attribute: textureCache
+     * @return boolean
+     */
+    public boolean isTextureCache() {
+        return textureCache;
+    }
+    
+    /**
+     * Sets the seconds between two refreshes of a window; while it is not due,
+     * the window is composited from a cached layer, keyed by its name and
+     * bounds. A window being hovered or with a popup open is refreshed every
+     * frame. An interval of {@code 0} (or less) removes the layer.
+     * <p>
+     * The window must be begun with {@link #begin(String, String, NkRect, int)}
+     * so that its commands are tagged; a window begun directly with
+     * {@code nk_begin} is drawn every frame. While a window has a layer, the
+     * texture cache and the skip of unchanged frames are not used.
+     * </p>
+     * 
+     * @param window name of the window
+     * @param interval seconds
+     */
+    public void setRefreshInterval(String window, float interval) {
+        NkLayer layer = windowLayers.get(window);
+        if (interval <= 0) {
+            if (layer != null) {
+                windowLayers.remove(window);
+                taggedLayers.remove(layer.getTag());
+                layer.destroy(renderManager.getRenderer());
+            }
+            return;
+        }
+        if (layer == null) {
+            layer = new NkLayer(assetManager);
+            layer.setTag(nextLayerTag++);
+            windowLayers.put(window, layer);
+            taggedLayers.put(layer.getTag(), layer);
+        }
+        layer.setInterval(interval);
+    }
+    
+    /**
+     * Begin a window as {@code nk_begin} does; if the window has a refresh
+     * interval, its commands are tagged so that it is drawn through its layer.
+     * 
+     * @param name name and title of the window
+     * @param bounds NkRect
+     * @param flags window flags
+     * @return {@code true} if the window is open and its content must be built
+     */
+    public boolean begin(String name, NkRect bounds, int flags) {
+        return begin(name, name, bounds, flags);
+    }
+    
+    /**
+     * Begin a window as {@code nk_begin_titled} does; if the window has a
+     * refresh interval, its commands are tagged through their user data so
+     * that it is drawn through its layer. The user data pushed by the
+     * application is kept for the other windows.
+     * 
+     * @param name name of the window
+     * @param title title of the window
+     * @param bounds NkRect
+     * @param flags window flags
+     * @return {@code true} if the window is open and its content must be built
+     */
+    public boolean begin(String name, String title, NkRect bounds, int flags) {
+        NkLayer layer = windowLayers.get(name);
+        if (layer == null) {
+            return nk_begin_titled(ctx, name, title, bounds, flags);
+        }
+        return NkLayer.begin(ctx, layer.getTag(), name, title, bounds, flags);
+    }
+    
+    /**
+     * Returns the seconds between two refreshes of a window.
+     * 
+     * @param window name of the window
+     * @return seconds, {@code 0} if the window has no layer
+     */
+    public float getRefreshInterval(String window) {
+        NkLayer layer = windowLayers.get(window);
+        return layer == null ? 0 : layer.getInterval();
+    }
+    
+    /**
+     * Forces the next frame to be converted and drawn again, even if its
+     * Nuklear command list is identical to the previous one.
+     */
+    public void invalidate() {
+        converted = false;
+        if (cacheLayer != null) {
+            cacheLayer.setValid(false);
+        }
+        for (NkLayer layer : windowLayers.values()) {
+            layer.setValid(false);
+        }
+    }
+    
+    /**
+     * Sets the tessellation quality used to convert the Nuklear commands when
+     * there is no governor.
+     * 
+     * @param qualityProfile QualityProfile
+     */
+    public void setQualityProfile(QualityProfile qualityProfile) {
+        if (qualityProfile == null) {
+            throw new NullPointerException("The quality profile cannot be null");
+        }
+        if (this.qualityProfile != qualityProfile) {
+            this.qualityProfile = qualityProfile;
+            invalidate();
+        }
+    }
+    
+    /**
+     * Returns the tessellation quality currently used, which is chosen by the
+     * governor when there is one.
+     * 
+     * @return QualityProfile
+     */
+    public QualityProfile getQualityProfile() {
+        return governor != null ? governor.getProfile() : qualityProfile;
+    }
+    
+    /**
+     * Sets a governor that lowers the tessellation quality when the time spent
+     * drawing the user interface goes over its budget, and restores it when
+     * there is headroom again; {@code null} to use the quality profile.
+     * 
+     * @param governor QualityGovernor
+     */
+    public void setQualityGovernor(QualityGovernor governor) {
+        this.governor = governor;
+        invalidate();
+    }
+
+    /**
+     * Returns the value of the attribute: governor
+     * @return QualityGovernor
+     */
+    public QualityGovernor getQualityGovernor() {
+        return governor;
+    }
+    
+    /**
+     * Returns the value of the attribute: hub
+     * @return NkResourceHub
+     */
+    public NkResourceHub getResourceHub() {
+        return hub;
+    }
+    
+    /**
+     * Returns the counters of the last frame drawn.
+     * 
+     * @return NkRenderStats
+     */
+    public NkRenderStats getRenderStats() {
+        return renderStats;
+    }
+    
+    /**
+     * Set a new clipboard manager
+     * 
+     * @see org.nrr.nk.NkDefaultClipboardHandler
+     * @see org.nrr.nk.awt.NkToolkitHandler
+     * 
+     * @param clipboard NkClipboardHandler
+     */
+    public void setClipboard(NkClipboardHandler clipboard) {
+        if (this.clipboard != null) {
+            this.clipboard.free();
+        }
+        this.clipboard = clipboard;
+    }
+
+    /*(non-Javadoc)
+     */
+    @Override
+    public void reshape(ViewPort vp, int w, int h) {
+        inputSys.setHeight(h);
+        viewPort = vp;
+        width    = w;
+        height   = h;
+        setView(0, 0, width, height);
+    }
+
+    /*(non-Javadoc)
+     */
+    @Override
+    public void rescale(ViewPort vp, float x, float y) {
+        xScale = x;
+        yScale = y;
+    }
+
+    /*(non-Javadoc)
+     */
+    @Override
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    /*(non-Javadoc)
+     */
+    @Override
+    public void preFrame(float tpf) {
+        for (NkLayer layer : windowLayers.values()) {
+            layer.update(tpf);
+        }
+        lastTpf = tpf;
+        if (pipelined) {
+            // the handlers are called by the worker thread
+            return;
+        }
+        for (final NkRender nrk : renders) {
+            nrk.handle(ctx, this, tpf);
+        }
+    }
+
+    /*(non-Javadoc)
+     */
+    @Override
+    public void postQueue(RenderQueue rq) {        
+        Camera camera = viewPort.getCamera(); 
+        renderManager.setCamera(camera, true);
+        // the displays of the hub draw in the same frame, only one counts them
+        textures.beginFrame(this, renderManager.getRenderer());
         
-        NkMesh mesh = (NkMesh) drawable.getMesh();
+        if (pipelined) {
+            renderPipelined();
+        } else {
+            runRenderTasks();
+            updateTextureLoaders();
+            
+            QualityProfile quality = getQualityProfile();
+            if (quality.needsUpdate()) {
+                quality.managedUpdate();
+                invalidate();
+            }
+
+            long start = System.nanoTime();
+            render(quality);
+
+            // only the frames that were converted measure the cost of the profile
+            if (governor != null && !renderStats.isReused() 
+                    && governor.update((System.nanoTime() - start) / 1_000_000f)) {
+                invalidate();
+            }
+        }
+        
+        renderManager.setCamera(camera, false);
+    }
+    
+    /**
+     * Draw the frame built by the worker thread and start building the next
+     * one; the first frame is built before being drawn.
+     */
+    private void renderPipelined() {
+        if (worker == null) {
+            worker = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "nk-worker");
+                thread.setDaemon(true);
+                workerThread = thread;
+                return thread;
+            });
+        }
+        if (pendingFrame == null) {
+            pendingFrame = worker.submit(buildFrame(lastTpf));
+        }
+        awaitFrame();
+        
+        // the context is not used by the worker until the next frame is submitted
+        runRenderTasks();
+        inputSys.updateGrab();
+        updateTextureLoaders();
+        
+        if (frameConverted) {
+            renderStats.reset();
+            renderStats.onCommands(drawList.getCommandCount(), drawList.getMergedCount());
+            if (frameReused) {
+                renderStats.onReused();
+            }
+            drawable.setPremultipliedOutput(false);
+            drawConverted(!frameReused);
+            
+            if (governor != null && !frameReused && governor.update(frameConvertTime)) {
+                invalidate();
+            }
+            nk_clear(ctx);
+            nk_buffer_clear(cmds);
+        } else {
+            // layers and cache draw on the render thread while the context is free
+            QualityProfile quality = getQualityProfile();
+            if (quality.needsUpdate()) {
+                quality.managedUpdate();
+                invalidate();
+            }
+            render(quality);
+        }
+        
+        pendingFrame = worker.submit(buildFrame(lastTpf));
+    }
+    
+    /**
+     * Returns the task that builds a frame on the worker thread: passes the
+     * queued input, calls the handlers and, unless the frame is drawn through
+     * layers or the cache, converts it.
+     * 
+     * @param tpf time per frame
+     * @return Runnable
+     */
+    private Runnable buildFrame(float tpf) {
+        return () -> {
+            inputSys.flush(ctx);
+            for (final NkRender nrk : renders) {
+                nrk.handle(ctx, this, tpf);
+            }
+            
+            frameConverted = windowLayers.isEmpty() && !textureCache;
+            if (!frameConverted) {
+                return;
+            }
+            
+            QualityProfile quality = getQualityProfile();
+            if (quality.needsUpdate()) {
+                quality.managedUpdate();
+                converted = false;
+            }
+            
+            long start = System.nanoTime();
+            frameReused = skipUnchanged && !commandsChanged() && converted && !bufferConfig.needsUpdate();
+            if (!frameReused) {
+                vertexCount = convert(quality);
+                collectCommands();
+            }
+            converted = skipUnchanged;
+            frameConvertTime = (System.nanoTime() - start) / 1_000_000f;
+        };
+    }
+    
+    /**
+     * Wait until the worker thread finishes the frame it is building.
+     */
+    private void awaitFrame() {
+        if (pendingFrame == null) {
+            return;
+        }
+        try {
+            pendingFrame.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error building the user interface", e.getCause());
+        } finally {
+            pendingFrame = null;
+        }
+    }
+    
+    /**
+     * Wait for the frame being built and stop the worker thread; the frame
+     * built is discarded, the handlers build it again on the render thread.
+     */
+    private void stopWorker() {
+        if (pendingFrame != null) {
+            awaitFrame();
+            nk_clear(ctx);
+            nk_buffer_clear(cmds);
+        }
+        if (worker != null) {
+            worker.shutdown();
+            worker = null;
+            workerThread = null;
+        }
+        runRenderTasks();
+    }
+    
+    /**
+     * Method responsible for reading the drawing buffers provided by Nuklear,
+     * where they are broken down into the buffers required by JME3 to draw a
+     * geometry.
+     * 
+     * @param quality QualityProfile
+     */
+    private void render(QualityProfile quality) {
+        Renderer renderer = renderManager.getRenderer();
+        Camera camera     = viewPort.getCamera();
+        
+        renderStats.reset();
+        if (!windowLayers.isEmpty()) {
+            renderLayers(quality, renderer, camera);
+            
+            nk_clear(ctx);
+            nk_buffer_clear(cmds);
+            return;
+        }
+        
+        boolean unchanged = (skipUnchanged || textureCache) && !commandsChanged();
+        boolean reuse     = skipUnchanged && unchanged && converted && !bufferConfig.needsUpdate();
+        
+        if (textureCache) {
+            if (cacheLayer.resize(renderer, camera.getWidth(), camera.getHeight())) {
+                unchanged = false;
+            }
+            if (unchanged && cacheLayer.isValid()) {
+                // nothing changed, composite the frame cached
+                renderStats.onCommands(drawList.getCommandCount(), drawList.getMergedCount());
+                renderStats.onReused();
+                compositeCache();
+                
+                nk_clear(ctx);
+                nk_buffer_clear(cmds);
+                return;
+            }
+        }
+        
+        if (!reuse) {
+            vertexCount = convert(quality);
+            collectCommands();
+        }
+        converted = skipUnchanged || textureCache;
+        
+        renderStats.onCommands(drawList.getCommandCount(), drawList.getMergedCount());
+        if (reuse) {
+            renderStats.onReused();
+        }
+        
+        if (textureCache) {
+            cacheLayer.begin(renderer);
+        }
+        drawable.setPremultipliedOutput(textureCache);
+        drawConverted(!reuse);
+        
+        if (textureCache) {
+            cacheLayer.setValid(true);
+            restoreViewPort(renderer, camera);
+            compositeCache();
+        }
+        
+        nk_clear(ctx);
+        nk_buffer_clear(cmds);
+    }
+    
+    /**
+     * Draw the frame converted with the current render mode.
+     * 
+     * @param upload {@code false} to draw the buffers uploaded previously
+     */
+    private void drawConverted(boolean upload) {
+        if (renderMode != RenderMode.COMMAND) {
+            renderFrame(vertexCount, upload);
+        } else {
+            renderCommands(0, drawList.size());
+        }
+    }
+    
+    /**
+     * Draw the frame when some windows have their own refresh interval.
+     * <p>
+     * The frame is converted once; the commands of the windows with a layer
+     * are tagged, so each of their draws belongs to a single window. The draws are then walked from back to
+     * front: the runs of draws of windows without a layer are drawn together,
+     * while the draws of a window with a layer are only drawn into its layer
+     * when it is due, and the layer is composited in their place.
+     * </p>
+     * 
+     * @param quality QualityProfile
+     * @param renderer Renderer
+     * @param camera Camera
+     */
+    private void renderLayers(QualityProfile quality, Renderer renderer, Camera camera) {
+        // the whole frame is never held by the buffers or the cache
+        converted = false;
+        cacheLayer.setValid(false);
+        drawable.setPremultipliedOutput(false);
+        
+        for (Map.Entry<String, NkLayer> entry : windowLayers.entrySet()) {
+            NkWindow win = nk_window_find(ctx, entry.getKey());
+            entry.getValue().setWindow(win == null ? NULL : win.address());
+        }
+        
+        vertexCount = convert(quality);
+        collectCommands();
+        renderStats.onCommands(drawList.getCommandCount(), drawList.getMergedCount());
+        
+        // the vertices are uploaded once, each run draws its own ranges
+        Vertex vertex = null;
+        if (renderMode != RenderMode.COMMAND && vertexCount > 0) {
+            vertex = uploadFrame(vertexCount);
+        }
+        
+        int first = 0;
+        int draw  = 0;
+        while (draw < drawList.size()) {
+            int group = drawList.getGroup(draw);
+            int end   = draw + 1;
+            while (end < drawList.size() && drawList.getGroup(end) == group) {
+                end++;
+            }
+            
+            NkLayer layer = findLayer(group);
+            if (layer != null) {
+                if (first < draw) {
+                    drawRange(first, draw);
+                }
+                renderLayer(layer, draw, end, renderer, camera);
+                first = end;
+            }
+            draw = end;
+        }
+        if (first < drawList.size()) {
+            drawRange(first, drawList.size());
+        }
+        
+        if (vertex != null) {
+            vertexPool.takeIn(vertex);
+        }
+    }
+    
+    /**
+     * Returns the layer of the draws with a tag, or {@code null} if they have
+     * no layer or their window is being used (hovered or with a popup open),
+     * in which case it is drawn directly every frame.
+     * 
+     * @param tag tag of the draws
+     * @return NkLayer
+     */
+    private NkLayer findLayer(int tag) {
+        NkLayer layer = tag == NkLayer.NO_TAG ? null : taggedLayers.get(tag);
+        if (layer == null || layer.getWindow() == NULL) {
+            return null;
+        }
+        
+        NkWindow win   = NkWindow.create(layer.getWindow());
+        NkWindow popup = win.popup().win();
+        if (nk_input_is_mouse_hovering_rect(ctx.input(), win.bounds()) 
+                || (popup != null && popup.seq() == ctx.seq())) {
+            layer.setValid(false);
+            return null;
+        }
+        return layer;
+    }
+    
+    /**
+     * Draw a window through its layer, refreshing the layer with the draws of
+     * the window if it is due.
+     * 
+     * @param layer NkLayer
+     * @param from first draw of the window (inclusive)
+     * @param to last draw of the window (exclusive)
+     * @param renderer Renderer
+     * @param camera Camera
+     */
+    private void renderLayer(NkLayer layer, int from, int to, Renderer renderer, Camera camera) {
+        NkRect bounds = NkWindow.create(layer.getWindow()).bounds();
+        
+        int x = (int) Math.floor(bounds.x());
+        int y = (int) Math.floor(bounds.y());
+        int w = (int) Math.ceil(bounds.x() + bounds.w()) - x;
+        int h = (int) Math.ceil(bounds.y() + bounds.h()) - y;
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        
+        // only a new size requires drawing the window again
+        layer.resize(renderer, w, h);
+        layer.setBounds(x, height - y - h, w, h);
+        
+        if (layer.isDue()) {
+            layer.begin(renderer);
+            setView(x, y, w, h);
+            drawable.setPremultipliedOutput(true);
+            drawRange(from, to);
+            
+            drawable.setPremultipliedOutput(false);
+            setView(0, 0, width, height);
+            restoreViewPort(renderer, camera);
+            
+            layer.setValid(true);
+            layer.refreshed();
+        }
+        
+        layer.composite(renderManager);
+        renderStats.onDraw();
+    }
+    
+    /**
+     * Draw a range of the draws of the frame converted; with a frame mode, the
+     * vertices must have been uploaded by {@link #uploadFrame(int)}.
+     * 
+     * @param from first draw (inclusive)
+     * @param to last draw (exclusive)
+     */
+    private void drawRange(int from, int to) {
+        if (renderMode == RenderMode.COMMAND) {
+            renderCommands(from, to);
+        } else if (vertexCount > 0) {
+            drawFrame(from, to);
+        }
+    }
+    
+    /**
+     * Sets the area of Nuklear that is drawn on the current frame buffer.
+     * 
+     * @param x float
+     * @param y float
+     * @param w float
+     * @param h float
+     */
+    private void setView(float x, float y, float w, float h) {
+        viewX      = x;
+        viewY      = y;
+        viewWidth  = w;
+        viewHeight = h;
+        drawable.setViewOffset(x, y);
+        drawable.setViewSize(w, h);
+    }
+    
+    /**
+     * Bind again the output of the view after drawing on a layer.
+     * 
+     * @param renderer Renderer
+     * @param camera Camera
+     */
+    private void restoreViewPort(Renderer renderer, Camera camera) {
+        renderer.setFrameBuffer(viewPort.getOutputFrameBuffer());
+        renderer.setBackgroundColor(viewPort.getBackgroundColor());
+        renderer.setViewPort(
+            (int) (camera.getViewPortLeft() * camera.getWidth()),
+            (int) (camera.getViewPortBottom() * camera.getHeight()),
+            (int) ((camera.getViewPortRight() - camera.getViewPortLeft()) * camera.getWidth()),
+            (int) ((camera.getViewPortTop() - camera.getViewPortBottom()) * camera.getHeight())
+        );
+    }
+    
+    /**
+     * Draw the user interface cached on the current frame buffer.
+     */
+    private void compositeCache() {
+        cacheLayer.composite(renderManager);
+        renderStats.onDraw();
+    }
+    
+    /**
+     * Compare the Nuklear command list of the current frame with the one of the
+     * previous frame, keeping a copy of it when they differ.
+     * <p>
+     * The command list ({@code ctx.memory()}) is the input of {@code nk_convert},
+     * so two identical lists always produce the same vertices and elements.
+     * </p>
+     * 
+     * @return {@code true} if the command list changed
+     */
+    private boolean commandsChanged() {
+        NkBuffer memory = ctx.memory();
+        int size = (int) memory.allocated();
+        
+        ByteBuffer current = memByteBuffer(nk_buffer_memory(memory), size);
+        if (lastCommands != null && lastCommands.equals(current)) {
+            return false;
+        }
+        
+        if (lastCommands == null || lastCommands.capacity() < size) {
+            if (lastCommands != null) {
+                BufferUtils.destroyDirectBuffer(lastCommands);
+            }
+            lastCommands = BufferUtils.createByteBuffer(Math.max(size, BUFFER_INITIAL_SIZE));
+        }
+        
+        lastCommands.clear();
+        lastCommands.put(current)
+                    .flip();
+        return true;
+    }
+    
+    /**
+     * Convert the Nuklear command list into vertices and elements.
+     * <p>
+     * If Nuklear reports that a buffer is full and the configuration resizes
+     * them automatically, the buffers grow and the conversion is repeated.
+     * </p>
+     * 
+     * @param quality QualityProfile
+     * @return number of vertices written
+     */
+    private int convert(QualityProfile quality) {
+        while (true) {
+            checkNkBuffers();
+            nk_buffer_clear(cmds);
+            
+            int vertexCount = tryConvert(quality);
+            if (vertexCount >= 0) {
+                wideIndices = needsWideElements(vertexCount);
+                if (wideIndices) {
+                    widenElements();
+                }
+                return vertexCount;
+            }
+        }
+    }
+    
+    /**
+     * Convert the Nuklear command list into the current buffers.
+     * 
+     * @param quality QualityProfile
+     * @return number of vertices written, {@code -1} if the buffers grew and
+     *          the conversion must be repeated
+     */
+    private int tryConvert(QualityProfile quality) {
+        try (MemoryStack stack = stackPush()) {
+            // fill convert configuration
+            NkConvertConfig config = NkConvertConfig.calloc(stack)
+                .vertex_layout(VERTEX_LAYOUT)
+                .vertex_size(MAX_VERTEX_SIZE)
+                .vertex_alignment(4)
+                .tex_null(nullTexture)
+                .circle_segment_count(quality.getCircleSegments())
+                .curve_segment_count(quality.getCurveSegments())
+                .arc_segment_count(quality.getArcSegments())
+                .global_alpha(1.0f)
+                .shape_AA(quality.isShapeAA() ? NK_ANTI_ALIASING_ON : NK_ANTI_ALIASING_OFF)
+                .line_AA(quality.isLineAA() ? NK_ANTI_ALIASING_ON : NK_ANTI_ALIASING_OFF);
+
+            // setup buffers to load vertices and elements
+            NkBuffer vbuf = NkBuffer.malloc(stack);
+            NkBuffer ebuf = NkBuffer.malloc(stack);
+
+            nk_buffer_init_fixed(vbuf, vertices/*, max_vertex_buffer*/);
+            nk_buffer_init_fixed(ebuf, elements/*, max_element_buffer*/);
+            int result = nk_convert(ctx, cmds, vbuf, ebuf, config);
+            
+            boolean vertexFull  = (result & NK_CONVERT_VERTEX_BUFFER_FULL) != 0;
+            boolean elementFull = (result & NK_CONVERT_ELEMENT_BUFFER_FULL) != 0;
+            if ((vertexFull || elementFull) 
+                    && bufferConfig.isAutoResize() 
+                    && bufferConfig.grow(vertexFull, elementFull)) {
+                return -1;
+            }
+            
+            bufferConfig.track((int) vbuf.allocated(), (int) ebuf.allocated());
+            elementCount = (int) (ebuf.allocated() / Short.BYTES);
+            return (int) (vbuf.allocated() / MAX_VERTEX_SIZE);
+        }
+    }
+    
+    /**
+     * Returns {@code true} if the elements of a frame with a number of vertices
+     * must be widened to 32 bits.
+     * 
+     * @param vertexCount number of vertices of the frame
+     * @return boolean
+     */
+    static boolean needsWideElements(int vertexCount) {
+        return vertexCount > MAX_SHORT_VERTICES;
+    }
+    
+    /**
+     * Restore the 32-bit elements of a frame with more vertices than a 16-bit
+     * element can address.
+     */
+    private void widenElements() {
+        if (wideElements == null || wideElements.capacity() < elementCount) {
+            if (wideElements != null) {
+                releaseViews();
+                BufferUtils.destroyDirectBuffer(wideElements);
+            }
+            wideElements = BufferUtils.createIntBuffer(elementCount);
+        }
+        widenElements(elements.asShortBuffer(), elementCount, wideElements);
+    }
+    
+    /**
+     * Restore the 32-bit value of the elements written by Nuklear.
+     * <p>
+     * Nuklear writes each element as the index of its vertex truncated to 16
+     * bits. A primitive only refers to vertices written next to the last one
+     * used, so each element is the index, congruent with the truncated value,
+     * closest to the highest index seen so far.
+     * </p>
+     * 
+     * @param elebuff elements as written by Nuklear
+     * @param count number of elements
+     * @param wide buffer that receives the elements, flipped
+     */
+    static void widenElements(ShortBuffer elebuff, int count, IntBuffer wide) {
+        wide.clear();
+        
+        int high = 0;
+        for (int i = 0; i < count; i++) {
+            int index = (high & ~0xFFFF) | (elebuff.get(i) & 0xFFFF);
+            if (index > high + 0x8000 && index >= 0x10000) {
+                index -= 0x10000;
+            } else if (index < high - 0x8000) {
+                index += 0x10000;
+            }
+            
+            wide.put(index);
+            high = Math.max(high, index);
+        }
+        wide.flip();
+    }
+    
+    /**
+     * Returns the index of the vertex referenced by an element of the frame.
+     * 
+     * @param elebuff elements as written by Nuklear
+     * @param i position of the element
+     * @return int
+     */
+    private int element(ShortBuffer elebuff, int i) {
+        return wideIndices ? wideElements.get(i) : elebuff.get(i) & 0xFFFF;
+    }
+    
+    /**
+     * Collects the drawing commands generated by Nuklear, merging consecutive
+     * commands that share the same texture, clipping rectangle and window tag.
+     */
+    private void collectCommands() {
+        drawList.clear();
         
         int offset = 0;
         for (NkDrawCommand cmd = nk__draw_begin(ctx, cmds); cmd != null; cmd = nk__draw_next(cmd, cmds, ctx)) {
@@ -543,67 +1801,295 @@ public final class NkDisplay implements SceneProcessor {
                 continue;
             }
             
-            ShortBuffer index = indexPool.takeOut(cmd.elem_count());
-            index.clear();
+            NkRect clip = cmd.clip_rect();
+            drawList.add(cmd.texture().id(), clip.x(), clip.y(), clip.w(), clip.h(), offset, cmd.elem_count(), 
+                         NkLayer.tagOf(cmd));
+            offset += cmd.elem_count();
+        }
+    }
+    
+    /**
+     * Draw each command by uploading only the vertices and elements it uses.
+     * 
+     * @param from first draw (inclusive)
+     * @param to last draw (exclusive)
+     */
+    private void renderCommands(int from, int to) {
+        ShortBuffer elebuff = elements.asShortBuffer();
+        Renderer renderer   = renderManager.getRenderer();
+        
+        beginPass();
+        for (int draw = from; draw < to; draw++) {
+            if (isCulled(draw)) {
+                continue;
+            }
+            
+            int offset = drawList.getOffset(draw);
+            int count  = drawList.getCount(draw);
+            NkMesh mesh = nextMesh();
             
-            // obtain and manage the elements
+            // range of vertices used by the command
             int min = Integer.MAX_VALUE;
             int max = 0;
-            for (int i = 0; i < cmd.elem_count(); i++) {
-                short idx = elebuff.get(offset + i);
-                index.put(idx);
-                
-                int v = idx & 0xFFFF;
+            for (int i = 0; i < count; i++) {
+                int v = element(elebuff, offset + i);
                 min = Math.min(min, v);
                 max = Math.max(max, v);
             }
-            index.flip();
-            
-            for (int i = 0; i < index.limit(); i++) {
-                index.put(i, (short)(index.get(i) - min));
-            }
             
             // Update the vertices
             int vertexCount = max - min + 1;
             Vertex vertex = vertexPool.takeOut(vertexCount)
                                     .clear()
-                                    .min(min)
-                                    .height(height);
+                                    .min(min);
             
-            vertex.make(vertices, MAX_VERTEX_SIZE);        
+            vertex.make(vertices, MAX_VERTEX_SIZE, vertexCount);
             mesh.updateBuffer(VertexBuffer.Type.Position, vertex.getPosition(), 2)
                 .updateBuffer(VertexBuffer.Type.TexCoord, vertex.getTexture(), 2)
-                .updateBuffer(VertexBuffer.Type.Color, vertex.getColor(), 4)
-                .updateBuffer(VertexBuffer.Type.Index, index, 3);
+                .updateBuffer(VertexBuffer.Type.Color, vertex.getColor(), 4);
             
-            renderer.setClipRect(
-                (int)(cmd.clip_rect().x() * xScale),
-                (int)((height - (int)(cmd.clip_rect().y() + cmd.clip_rect().h())) * yScale),
-                (int)(cmd.clip_rect().w() * xScale),
-                (int)(cmd.clip_rect().h() * yScale)
-            );
+            // obtain and manage the elements, relative to the first vertex
+            if (vertexCount <= MAX_SHORT_VERTICES) {
+                ShortBuffer index = indexPool.takeOut(count);
+                index.clear();
+                for (int i = 0; i < count; i++) {
+                    index.put((short) (element(elebuff, offset + i) - min));
+                }
+                index.flip();
+                
+                mesh.updateBuffer(VertexBuffer.Type.Index, index, 3);
+                drawCommand(renderer, draw);
+                indexPool.takeIn(index);
+            } else {
+                IntBuffer index = wideIndexPool.takeOut(count);
+                index.clear();
+                for (int i = 0; i < count; i++) {
+                    index.put(element(elebuff, offset + i) - min);
+                }
+                index.flip();
+                
+                mesh.updateBuffer(VertexBuffer.Type.Index, index, 3);
+                drawCommand(renderer, draw);
+                wideIndexPool.takeIn(index);
+            }
             
-            // draw geometry
-            drawable.getMaterial()
-                    .setTexture("ColorMap", textures.get(cmd.texture().id()));
-            renderManager.renderGeometry(drawable);
+            vertexPool.takeIn(vertex);
+        }
 
-            indexPool.takeIn(index);
+        renderer.clearClipRect();
+    }
+    
+    /**
+     * Draw the frame by uploading all the converted vertices at once; each
+     * command selects its range of the element buffer.
+     * 
+     * @param vertexCount number of vertices written by Nuklear
+     * @param upload {@code false} to draw the buffers uploaded previously
+     */
+    private void renderFrame(int vertexCount, boolean upload) {
+        if (vertexCount == 0) {
+            return;
+        }
+        
+        Vertex vertex = upload ? uploadFrame(vertexCount) : null;
+        drawFrame(0, drawList.size());
+        if (vertex != null) {
             vertexPool.takeIn(vertex);
-            offset += cmd.elem_count();
         }
+    }
+    
+    /**
+     * Upload all the converted vertices into the next mesh of the ring, with
+     * the range of the element buffer of each draw.
+     * <p>
+     * The JME3 renderer always draws an index buffer from its beginning, so
+     * each range is exposed as a view (without copying) of the shared element
+     * buffer registered as a level of detail of the mesh.
+     * </p>
+     * 
+     * @param vertexCount number of vertices written by Nuklear
+     * @return the vertices to return to the pool once drawn, {@code null} if
+     *          they were uploaded as Nuklear wrote them
+     */
+    private Vertex uploadFrame(int vertexCount) {
+        ShortBuffer elebuff = elements.asShortBuffer();
+        NkMesh mesh = nextMesh();
+        
+        Vertex vertex = null;
+        if (mesh.isInterleaved()) {
+            mesh.updateInterleaved(vertices.slice(0, vertexCount * MAX_VERTEX_SIZE), vertexCount);
+        } else {
+            vertex = vertexPool.takeOut(vertexCount)
+                            .clear()
+                            .min(0);
 
+            vertex.make(vertices, MAX_VERTEX_SIZE, vertexCount);
+            mesh.updateBuffer(VertexBuffer.Type.Position, vertex.getPosition(), 2)
+                .updateBuffer(VertexBuffer.Type.TexCoord, vertex.getTexture(), 2)
+                .updateBuffer(VertexBuffer.Type.Color, vertex.getColor(), 4);
+        }
+        
+        // every range is updated, a frame drawn again can be culled differently
+        for (int draw = 0; draw < drawList.size(); draw++) {
+            if (wideIndices) {
+                mesh.updateRange(draw, wideElements.slice(drawList.getOffset(draw), drawList.getCount(draw)));
+            } else {
+                mesh.updateRange(draw, elebuff.slice(drawList.getOffset(draw), drawList.getCount(draw)));
+            }
+        }
+        return vertex;
+    }
+    
+    /**
+     * Draw a range of the draws of the frame uploaded to the current mesh.
+     * 
+     * @param from first draw (inclusive)
+     * @param to last draw (exclusive)
+     */
+    private void drawFrame(int from, int to) {
+        Renderer renderer = renderManager.getRenderer();
+        
+        beginPass();
+        for (int draw = from; draw < to; draw++) {
+            if (isCulled(draw)) {
+                continue;
+            }
+            drawable.setLodLevel(draw);
+            drawCommand(renderer, draw);
+        }
         renderer.clearClipRect();
+    }
+    
+    /**
+     * Apply the clipping and texture of a draw and draw the geometry.
+     * 
+     * @param renderer Renderer
+     * @param draw index within the draw list
+     */
+    private void drawCommand(Renderer renderer, int draw) {
+        float clipX = drawList.getClipX(draw);
+        float clipY = drawList.getClipY(draw);
+        float clipW = drawList.getClipWidth(draw);
+        float clipH = drawList.getClipHeight(draw);
         
-        nk_clear(ctx);
-        nk_buffer_clear(cmds);
+        int x = (int)((clipX - viewX) * xScale);
+        int y = (int)((viewHeight - (int)(clipY - viewY + clipH)) * yScale);
+        int w = (int)(clipW * xScale);
+        int h = (int)(clipH * yScale);
+        
+        if (clipApplied && x == lastClip[0] && y == lastClip[1] 
+                        && w == lastClip[2] && h == lastClip[3]) {
+            renderStats.onClipSkipped();
+        } else {
+            renderer.setClipRect(x, y, w, h);
+            lastClip[0] = x;
+            lastClip[1] = y;
+            lastClip[2] = w;
+            lastClip[3] = h;
+            clipApplied = true;
+        }
+
+        Texture texture = textures.draw(drawList.getTexture(draw));
+        boolean textureChanged = !textureApplied || texture != lastTexture;
+        if (!textureChanged) {
+            renderStats.onTextureSkipped();
+        }
+        lastTexture    = texture;
+        textureApplied = true;
+        
+        // draw geometry
+        long start = System.nanoTime();
+        if (leanDraws && materialApplied && drawLean(renderer, texture, textureChanged)) {
+            renderStats.onLeanDraw();
+        } else {
+            Material material = drawable.getMaterial();
+            MatParamTexture param = material.getTextureParam("ColorMap");
+            if (param == null || param.getTextureValue() != texture) {
+                material.setTexture("ColorMap", texture);
+            }
+            renderManager.renderGeometry(drawable);
+            materialApplied = true;
+        }
+        renderStats.onDraw(System.nanoTime() - start);
+    }
+    
+    /**
+     * Draw the current mesh with the material applied by the first draw of the
+     * pass; the texture is bound directly to the unit of {@code ColorMap}, the
+     * only texture of the material.
+     * 
+     * @param renderer Renderer
+     * @param texture texture of the draw
+     * @param textureChanged {@code false} if the texture is already bound
+     * @return {@code false} if the draw must go through the full path
+     */
+    private boolean drawLean(Renderer renderer, Texture texture, boolean textureChanged) {
+        if (texture == null) {
+            return false;
+        }
+        if (textureChanged) {
+            try {
+                renderer.setTexture(0, texture);
+            } catch (TextureUnitException e) {
+                return false;
+            }
+        }
+        renderer.renderMesh(drawable.getMesh(), drawable.getLodLevel(), 1, null);
+        return true;
+    }
+    
+    /**
+     * Start a sequence of draws; the state applied by previous draws is no
+     * longer trusted.
+     */
+    private void beginPass() {
+        lastTexture     = null;
+        textureApplied  = false;
+        clipApplied     = false;
+        materialApplied = false;
+    }
+    
+    /**
+     * Returns {@code true} if the clipping rectangle of a draw is empty or lies
+     * outside the area being drawn, in which case the draw is dropped.
+     * 
+     * @param draw index within the draw list
+     * @return boolean
+     */
+    private boolean isCulled(int draw) {
+        float x = drawList.getClipX(draw);
+        float y = drawList.getClipY(draw);
+        float w = drawList.getClipWidth(draw);
+        float h = drawList.getClipHeight(draw);
+        
+        boolean culled = w <= 0 || h <= 0
+                        || x >= viewX + viewWidth || x + w <= viewX
+                        || y >= viewY + viewHeight || y + h <= viewY;
+        if (culled) {
+            renderStats.onCulled();
+        }
+        return culled;
     }
 
+    /**
+     * Make the meshes of the ring drop their views of the Nuklear buffers
+     * before these are freed.
+     */
+    private void releaseViews() {
+        if (drawables == null) {
+            return;
+        }
+        for (NkGeometry geometry : drawables) {
+            ((NkMesh) geometry.getMesh()).releaseViews();
+        }
+    }
+    
     /**
      * Method responsible for cleaning and verifying the size of the read buffers.
      */
     private void checkNkBuffers() {
         if (bufferConfig.needsUpdate()) {
+            releaseViews();
             if (vertices != null) {
                 BufferUtils.destroyDirectBuffer(vertices);
             }
@@ -630,12 +2116,20 @@ public final class NkDisplay implements SceneProcessor {
      */
     @Override
     public void cleanup() {
+        stopWorker();
+        textures.endFrames(this);
         inputSys.reset();
         if (inputManager != null) {
             inputManager.removeRawInputListener(inputSys);
         }
         vertices.clear();
         elements.clear();
+        cacheLayer.destroy(renderManager.getRenderer());
+        for (NkLayer layer : windowLayers.values()) {
+            layer.destroy(renderManager.getRenderer());
+        }
+        deleteDrawables();
+        converted   = false;
         initialized = false;
     }
 
@@ -649,10 +2143,14 @@ public final class NkDisplay implements SceneProcessor {
     /**
      * Destruye toda la interfaz Nuklear.
      *
-     * @param allocator {@code true} if the memory managers are destroyed (they 
-     * are only created once).
+     * @param allocator {@code true} if the memory managers of the hub are
+     * destroyed once no other display uses them; the displays created without
+     * a hub share their memory managers, which are then destroyed for all of
+     * them.
      */
     public void destroy(boolean allocator) {
+        stopWorker();
+        textures.endFrames(this);
         NkPluginCopy pluginCopy = ctx.clip().copy();
         if (pluginCopy != null) {
             pluginCopy.free();
@@ -665,30 +2163,11 @@ public final class NkDisplay implements SceneProcessor {
         
         nk_free(ctx);
         
-        NkUserFont userFont = fontHandler.userFont();
-        if (userFont != null) {
-            NkQueryFontGlyphCallback queryFontGlyphCallback  = userFont.query();
-            if (queryFontGlyphCallback != null) {
-                queryFontGlyphCallback.free();
-            }
-
-            NkTextWidthCallback widthCallback = userFont.width();
-            if (widthCallback != null) {
-                widthCallback.free();
-            }
-        }
-        
-        if (allocator) {
-            NkPluginAlloc pluginAlloc = ALLOCATOR.alloc();
-            if (pluginAlloc != null) {
-                pluginAlloc.free();
-            }
-
-            NkPluginFree pluginFree = ALLOCATOR.mfree();
-            if (pluginFree != null) {
-                pluginFree.free();
-            }
+        if (appliedFont != null) {
+            hub.releaseFont(appliedFont);
+            appliedFont = null;
         }
+        hub.release(allocator);
     }
     
     /**
@@ -726,6 +2205,10 @@ public final class NkDisplay implements SceneProcessor {
     /**
      * Returns the Nuklear context; if used outside of a dedicated renderer, checks 
      * if it has been initialized using the {@code isInitialized()} method.
+     * <p>
+     * While pipelined, the context belongs to the worker thread while it
+     * builds a frame; it must be used from the {@link NkRender} handlers.
+     * </p>
      * <pre><code>
      *   public void simpleUpdate(float tpf) {
      *       if (display.isInitialized()) {
@@ -736,8 +2219,13 @@ public final class NkDisplay implements SceneProcessor {
      * </code></pre>
      * 
      * @return NkContext
+     * @throws IllegalStateException if called from another thread while the
+     *          worker thread builds a frame
      */
     public NkContext getContext() {        
+        if (pendingFrame != null && !pendingFrame.isDone() && !isWorkerThread()) {
+            throw new IllegalStateException("The context is in use by the worker thread building the frame");
+        }
         return ctx;
     }  
 
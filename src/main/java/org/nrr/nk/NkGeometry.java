@@ -33,6 +33,7 @@ package org.nrr.nk;
 import com.jme3.asset.AssetManager;
 import com.jme3.material.Material;
 import com.jme3.material.RenderState;
+import com.jme3.math.Vector2f;
 import com.jme3.renderer.queue.RenderQueue;
 import com.jme3.scene.Geometry;
 import com.jme3.texture.Image;
@@ -52,6 +53,11 @@ import java.nio.ByteBuffer;
  * @since 1.0.0
  */
 public class NkGeometry extends Geometry {
+    
+    /** Size of the view, updated in place. */
+    private final Vector2f viewSize = new Vector2f(1, 1);
+    /** Origin of the view, updated in place. */
+    private final Vector2f viewOffset = new Vector2f();
 
     /**
      * Constructor of the class <code>NkGeometry</code>.
@@ -60,10 +66,20 @@ public class NkGeometry extends Geometry {
      * @param texture boolean
      */
     public NkGeometry(AssetManager assetManager, boolean texture) {
-        super("NkGeometry", new NkMesh());
-        Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        mat.setTransparent(true);        
-        mat.setBoolean("VertexColor", true);
+        this(assetManager, new NkMesh(), texture);
+    }
+    
+    /**
+     * Constructor of the class <code>NkGeometry</code>.
+     * 
+     * @param assetManager AssetManager
+     * @param mesh NkMesh
+     * @param texture boolean
+     */
+    public NkGeometry(AssetManager assetManager, NkMesh mesh, boolean texture) {
+        super("NkGeometry", mesh);
+        Material mat = new Material(assetManager, "Interface/Nuklear/MatDefs/Nuklear.j3md");
+        mat.setTransparent(true);
         mat.getAdditionalRenderState().setBlendMode(RenderState.BlendMode.Alpha);
         mat.getAdditionalRenderState().setFaceCullMode(RenderState.FaceCullMode.Off);
         mat.getAdditionalRenderState().setDepthTest(false);
@@ -81,8 +97,49 @@ public class NkGeometry extends Geometry {
             mat.setTexture("ColorMap", nullTexture);
         }
         
+        mat.setVector2("ViewSize", viewSize);
         setQueueBucket(RenderQueue.Bucket.Gui);
         setCullHint(CullHint.Never);
         setMaterial(mat);
     }
+    
+    /**
+     * Sets the size of the view in Nuklear coordinates, used by the shader
+     * to project the vertices.
+     * 
+     * @param width float
+     * @param height float
+     */
+    public void setViewSize(float width, float height) {
+        getMaterial().setVector2("ViewSize", viewSize.set(width, height));
+    }
+    
+    /**
+     * Sets the origin of the view in Nuklear coordinates, used by the shader
+     * to project the vertices.
+     * 
+     * @param x float
+     * @param y float
+     */
+    public void setViewOffset(float x, float y) {
+        getMaterial().setVector2("ViewOffset", viewOffset.set(x, y));
+    }
+    
+    /**
+     * Sets whether the geometry is blended for an offscreen layer, keeping the
+     * color of the destination premultiplied by its alpha so that the layer can
+     * later be composited correctly.
+     * 
+     * @param premultiplied boolean
+     */
+    public void setPremultipliedOutput(boolean premultiplied) {
+        RenderState state = getMaterial().getAdditionalRenderState();
+        if (premultiplied) {
+            state.setCustomBlendFactors(RenderState.BlendFunc.Src_Alpha, RenderState.BlendFunc.One_Minus_Src_Alpha, 
+                                        RenderState.BlendFunc.One, RenderState.BlendFunc.One_Minus_Src_Alpha);
+            state.setBlendMode(RenderState.BlendMode.Custom);
+        } else {
+            state.setBlendMode(RenderState.BlendMode.Alpha);
+        }
+    }
 }
@@ -0,0 +1,512 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+import com.jme3.font.BitmapCharacter;
+import com.jme3.font.BitmapCharacterSet;
+import com.jme3.font.BitmapFont;
+import com.jme3.util.IntMap;
+
+import org.lwjgl.nuklear.NkUserFontGlyph;
+import org.lwjgl.nuklear.NkVec2;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Metrics of the glyphs of a {@code BitmapFont} already scaled, so that the
+ * glyph queries of Nuklear only copy values.
+ * <p>
+ * The codepoints below {@link #DENSE_SIZE} are kept in primitive arrays, with
+ * a table of kerning for their pairs if the font has any; the rest are looked
+ * up in the character set the first time and kept in a map.
+ * </p>
+ * <p>
+ * The width of the texts is measured from their UTF-8 bytes in native memory,
+ * without creating objects; the widths of the short texts measured recently
+ * are remembered by their bytes.
+ * </p>
+ * <p>
+ * A font can be shared by several displays, each one building its frames in
+ * its own thread; the arrays are only read after the constructor, the widths
+ * are remembered separately by each thread and the glyphs outside the arrays
+ * are looked up under a lock.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+final class NkGlyphCache {
+    
+    /** Number of codepoints kept in the arrays. */
+    static final int DENSE_SIZE = 256;
+    /** Number of texts whose width is remembered (power of two). */
+    private static final int WIDTH_SLOTS = 256;
+    /** Maximum length in bytes of the texts whose width is remembered. */
+    private static final int WIDTH_KEY_SIZE = 32;
+    
+    /**
+     * Widths of the short texts measured recently by a thread, in slots
+     * chosen by the hash of their bytes.
+     */
+    private static final class WidthMemo {
+        /** Hash of the text of each slot. */
+        final int[] hashes = new int[WIDTH_SLOTS];
+        /** Length of the text of each slot, {@code 0} if it is empty. */
+        final int[] lengths = new int[WIDTH_SLOTS];
+        /** Width of the text of each slot. */
+        final float[] values = new float[WIDTH_SLOTS];
+        /** Bytes of the text of each slot. */
+        final byte[] keys = new byte[WIDTH_SLOTS * WIDTH_KEY_SIZE];
+    }
+    
+    /**
+     * Metrics of a glyph outside the arrays.
+     */
+    private static final class Glyph {
+        /** Character of the glyph, {@code null} if the font does not have it. */
+        final BitmapCharacter character;
+        /** Metrics: width, height, x offset, y offset, u0, v0, u1, v1, advance. */
+        final float[] metrics;
+
+        /**
+         * Constructor of the class <code>Glyph</code>.
+         * 
+         * @param character BitmapCharacter
+         * @param metrics float[]
+         */
+        Glyph(BitmapCharacter character, float[] metrics) {
+            this.character = character;
+            this.metrics   = metrics;
+        }
+    }
+    
+    /** Whether the font has each codepoint. */
+    private final boolean[] present = new boolean[DENSE_SIZE];
+    /** Width of each glyph. */
+    private final float[] widths   = new float[DENSE_SIZE];
+    /** Height of each glyph. */
+    private final float[] heights  = new float[DENSE_SIZE];
+    /** Horizontal offset of each glyph. */
+    private final float[] offsetsX = new float[DENSE_SIZE];
+    /** Vertical offset of each glyph. */
+    private final float[] offsetsY = new float[DENSE_SIZE];
+    /** Texture coordinates of each glyph (u0, v0, u1, v1). */
+    private final float[] uvs      = new float[DENSE_SIZE * 4];
+    /** Advance of each glyph, without kerning. */
+    private final float[] advances = new float[DENSE_SIZE];
+    /** Kerning of each pair of glyphs, {@code null} if the font has none. */
+    private final float[] kerning;
+    
+    /** Widths remembered by each thread that measures texts. */
+    private final ThreadLocal<WidthMemo> widthMemos = ThreadLocal.withInitial(WidthMemo::new);
+    
+    /** Glyphs outside the arrays, by codepoint; guarded by itself. */
+    private final IntMap<Glyph> others = new IntMap<>();
+    /** Character set of the font. */
+    private final BitmapCharacterSet characterSet;
+    /** Scale of the font. */
+    private final float scale;
+    /** Width of the texture the glyphs are drawn from. */
+    private final int textureWidth;
+
+    /**
+     * Constructor of the class <code>NkGlyphCache</code>.
+     * 
+     * @param font BitmapFont
+     * @param scale scale of the font
+     * @param textureWidth width of the texture the glyphs are drawn from, which
+     * can be wider than the page of the font
+     */
+    NkGlyphCache(BitmapFont font, float scale, int textureWidth) {
+        this.characterSet = font.getCharSet();
+        this.scale        = scale;
+        this.textureWidth = textureWidth;
+        
+        float[] metrics = new float[9];
+        for (int codepoint = 0; codepoint < DENSE_SIZE; codepoint++) {
+            BitmapCharacter character = characterSet.getCharacter(codepoint);
+            if (character == null) {
+                continue;
+            }
+            compute(character, metrics);
+            present[codepoint]  = true;
+            widths[codepoint]   = metrics[0];
+            heights[codepoint]  = metrics[1];
+            offsetsX[codepoint] = metrics[2];
+            offsetsY[codepoint] = metrics[3];
+            System.arraycopy(metrics, 4, uvs, codepoint * 4, 4);
+            advances[codepoint] = metrics[8];
+        }
+        
+        float[] table = new float[DENSE_SIZE * DENSE_SIZE];
+        boolean any = false;
+        for (int first = 0; first < DENSE_SIZE; first++) {
+            if (!present[first]) {
+                continue;
+            }
+            BitmapCharacter character = characterSet.getCharacter(first);
+            for (int second = 0; second < DENSE_SIZE; second++) {
+                int amount = character.getKerning(second);
+                if (amount != 0) {
+                    table[first * DENSE_SIZE + second] = amount * scale;
+                    any = true;
+                }
+            }
+        }
+        kerning = any ? table : null;
+    }
+    
+    /**
+     * Compute the scaled metrics of a character.
+     * 
+     * @param character BitmapCharacter
+     * @param metrics width, height, x offset, y offset, u0, v0, u1, v1, advance
+     */
+    private void compute(BitmapCharacter character, float[] metrics) {
+        float u0 = (float) character.getX() / textureWidth;
+        float v0 = (float) character.getY() / characterSet.getHeight();
+        
+        metrics[0] = character.getWidth() * scale;
+        metrics[1] = character.getHeight() * scale;
+        metrics[2] = character.getXOffset() * scale;
+        metrics[3] = character.getYOffset() * scale;
+        metrics[4] = u0;
+        metrics[5] = v0;
+        metrics[6] = u0 + (float) character.getWidth() / textureWidth;
+        metrics[7] = v0 + (float) character.getHeight() / characterSet.getHeight();
+        metrics[8] = character.getXAdvance() * scale;
+    }
+    
+    /**
+     * Returns a glyph outside the arrays, looking it up the first time.
+     * 
+     * @param codepoint int
+     * @return Glyph
+     */
+    private Glyph other(int codepoint) {
+        synchronized (others) {
+            Glyph glyph = others.get(codepoint);
+            if (glyph == null) {
+                BitmapCharacter character = characterSet.getCharacter(codepoint);
+                float[] metrics = new float[9];
+                if (character != null) {
+                    compute(character, metrics);
+                }
+                glyph = new Glyph(character, metrics);
+                others.put(codepoint, glyph);
+            }
+            return glyph;
+        }
+    }
+    
+    /**
+     * Returns the advance from a glyph to the next one, with its kerning; as
+     * {@code BitmapFont.getCharacterAdvance}.
+     * 
+     * @param codepoint int
+     * @param next codepoint that follows
+     * @return float
+     */
+    float advance(int codepoint, int next) {
+        if (codepoint >= 0 && codepoint < DENSE_SIZE) {
+            if (!present[codepoint]) {
+                return 0;
+            }
+            float advance = advances[codepoint];
+            if (kerning != null && next >= 0 && next < DENSE_SIZE) {
+                advance += kerning[codepoint * DENSE_SIZE + next];
+            } else if (next >= DENSE_SIZE) {
+                advance += characterSet.getCharacter(codepoint).getKerning(next) * scale;
+            }
+            return advance;
+        }
+        
+        Glyph glyph = other(codepoint);
+        if (glyph.character == null) {
+            return 0;
+        }
+        return glyph.metrics[8] + glyph.character.getKerning(next) * scale;
+    }
+    
+    /**
+     * Returns the kerning between two codepoints.
+     * 
+     * @param first int
+     * @param second int
+     * @return float
+     */
+    private float kerning(int first, int second) {
+        if (first >= 0 && first < DENSE_SIZE && second >= 0 && second < DENSE_SIZE) {
+            return kerning == null ? 0 : kerning[first * DENSE_SIZE + second];
+        }
+        BitmapCharacter character = first < DENSE_SIZE ? characterSet.getCharacter(first) : other(first).character;
+        return character == null ? 0 : character.getKerning(second) * scale;
+    }
+    
+    /**
+     * Returns {@code true} if the font has a codepoint.
+     * 
+     * @param codepoint int
+     * @return boolean
+     */
+    private boolean has(int codepoint) {
+        if (codepoint >= 0 && codepoint < DENSE_SIZE) {
+            return present[codepoint];
+        }
+        return other(codepoint).character != null;
+    }
+    
+    /**
+     * Returns a metric of a codepoint the font has.
+     * 
+     * @param codepoint int
+     * @param dense array of the metric
+     * @param index index of the metric outside the arrays
+     * @return float
+     */
+    private float metric(int codepoint, float[] dense, int index) {
+        if (codepoint >= 0 && codepoint < DENSE_SIZE) {
+            return dense[codepoint];
+        }
+        return other(codepoint).metrics[index];
+    }
+    
+    /**
+     * Returns the width of a UTF-8 text in native memory, remembering it for
+     * the calling thread if the text is short.
+     * 
+     * @param text address of the text
+     * @param len length in bytes
+     * @return float
+     */
+    float width(long text, int len) {
+        if (len <= 0) {
+            return 0;
+        }
+        if (len > WIDTH_KEY_SIZE) {
+            return measure(text, len);
+        }
+        
+        // FNV-1a
+        int hash = 0x811C9DC5;
+        for (int i = 0; i < len; i++) {
+            hash = (hash ^ (memGetByte(text + i) & 0xFF)) * 0x01000193;
+        }
+        int slot = hash & (WIDTH_SLOTS - 1);
+        int key  = slot * WIDTH_KEY_SIZE;
+        
+        WidthMemo memo = widthMemos.get();
+        if (memo.lengths[slot] == len && memo.hashes[slot] == hash && matches(memo.keys, text, len, key)) {
+            return memo.values[slot];
+        }
+        
+        float width = measure(text, len);
+        for (int i = 0; i < len; i++) {
+            memo.keys[key + i] = memGetByte(text + i);
+        }
+        memo.hashes[slot]  = hash;
+        memo.lengths[slot] = len;
+        memo.values[slot]  = width;
+        return width;
+    }
+    
+    /**
+     * Returns {@code true} if a text has the bytes remembered in a slot.
+     * 
+     * @param keys bytes of the slots
+     * @param text address of the text
+     * @param len length in bytes
+     * @param key offset of the bytes of the slot
+     * @return boolean
+     */
+    private static boolean matches(byte[] keys, long text, int len, int key) {
+        for (int i = 0; i < len; i++) {
+            if (keys[key + i] != memGetByte(text + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Measure a UTF-8 text in native memory as {@code BitmapFont.getLineWidth}:
+     * the first glyph of each line adds its horizontal offset, the last one its
+     * width instead of its advance, and the kerning applies between glyphs;
+     * the width of the widest line is returned.
+     * 
+     * @param text address of the text
+     * @param len length in bytes
+     * @return float
+     */
+    private float measure(long text, int len) {
+        float lineWidth    = 0;
+        float maxLineWidth = 0;
+        boolean firstOfLine = true;
+        int last = 0;
+        
+        int pos = 0;
+        int codepoint = -1;
+        int next = decode(text, len, pos);
+        pos += next >>> 24;
+        next &= 0xFFFFFF;
+        
+        while (next != 0xFFFFFF) {
+            codepoint = next;
+            if (pos < len) {
+                next = decode(text, len, pos);
+                pos += next >>> 24;
+                next &= 0xFFFFFF;
+            } else {
+                next = 0xFFFFFF;
+            }
+            
+            if (codepoint == '\n') {
+                maxLineWidth = Math.max(maxLineWidth, lineWidth);
+                lineWidth   = 0;
+                firstOfLine = true;
+                continue;
+            }
+            if (!has(codepoint)) {
+                continue;
+            }
+            
+            float offsetX = metric(codepoint, offsetsX, 2);
+            if (firstOfLine) {
+                // the part that hangs over the left also counts
+                lineWidth  -= offsetX;
+                firstOfLine = false;
+            } else {
+                lineWidth += kerning(last, codepoint);
+            }
+            
+            if (next == 0xFFFFFF || next == '\n') {
+                lineWidth += metric(codepoint, widths, 0) + offsetX;
+            } else {
+                lineWidth += metric(codepoint, advances, 8);
+            }
+            last = codepoint;
+        }
+        return Math.max(maxLineWidth, lineWidth);
+    }
+    
+    /**
+     * Decode the UTF-8 codepoint at a position of a text in native memory.
+     * 
+     * @param text address of the text
+     * @param len length in bytes
+     * @param pos position of the first byte
+     * @return the codepoint in the low 24 bits and its size in bytes in the
+     *          high 8 bits
+     */
+    private static int decode(long text, int len, int pos) {
+        int b = memGetByte(text + pos) & 0xFF;
+        int codepoint, size;
+        if (b < 0x80) {
+            return (1 << 24) | b;
+        } else if ((b & 0xE0) == 0xC0) {
+            codepoint = b & 0x1F;
+            size = 2;
+        } else if ((b & 0xF0) == 0xE0) {
+            codepoint = b & 0x0F;
+            size = 3;
+        } else {
+            codepoint = b & 0x07;
+            size = 4;
+        }
+        size = Math.min(size, len - pos);
+        for (int i = 1; i < size; i++) {
+            codepoint = (codepoint << 6) | (memGetByte(text + pos + i) & 0x3F);
+        }
+        return (size << 24) | (codepoint & 0x1FFFFF);
+    }
+    
+    /**
+     * Write the metrics of a glyph into a {@code NkUserFontGlyph} in native
+     * memory, without creating its wrappers.
+     * 
+     * @param glyph address of the NkUserFontGlyph
+     * @param width float
+     * @param height float
+     * @param offsetX float
+     * @param offsetY float
+     * @param xadvance float
+     * @param u0 float
+     * @param v0 float
+     * @param u1 float
+     * @param v1 float
+     */
+    static void put(long glyph, float width, float height, float offsetX, float offsetY, 
+            float xadvance, float u0, float v0, float u1, float v1) {
+        NkUserFontGlyph.nwidth(glyph, width);
+        NkUserFontGlyph.nheight(glyph, height);
+        NkUserFontGlyph.nxadvance(glyph, xadvance);
+        
+        long offset = glyph + NkUserFontGlyph.OFFSET;
+        memPutFloat(offset + NkVec2.X, offsetX);
+        memPutFloat(offset + NkVec2.Y, offsetY);
+        
+        long uv = glyph + NkUserFontGlyph.UV;
+        memPutFloat(uv + NkVec2.X, u0);
+        memPutFloat(uv + NkVec2.Y, v0);
+        memPutFloat(uv + NkVec2.SIZEOF + NkVec2.X, u1);
+        memPutFloat(uv + NkVec2.SIZEOF + NkVec2.Y, v1);
+    }
+    
+    /**
+     * Fill the glyph of a codepoint; nothing is written if the font does not
+     * have it.
+     * 
+     * @param ufg address of the NkUserFontGlyph
+     * @param codepoint int
+     * @param next codepoint that follows
+     */
+    void query(long ufg, int codepoint, int next) {
+        if (codepoint >= 0 && codepoint < DENSE_SIZE) {
+            if (!present[codepoint]) {
+                return;
+            }
+            int uv = codepoint * 4;
+            put(ufg, widths[codepoint], heights[codepoint], 
+                offsetsX[codepoint], offsetsY[codepoint], advance(codepoint, next), 
+                uvs[uv], uvs[uv + 1], uvs[uv + 2], uvs[uv + 3]);
+            return;
+        }
+        
+        Glyph glyph = other(codepoint);
+        if (glyph.character == null) {
+            return;
+        }
+        float[] metrics = glyph.metrics;
+        put(ufg, metrics[0], metrics[1], metrics[2], metrics[3], advance(codepoint, next), 
+            metrics[4], metrics[5], metrics[6], metrics[7]);
+    }
+}
@@ -42,6 +42,10 @@ import com.jme3.input.event.MouseMotionEvent;
 import com.jme3.input.event.TouchEvent;
 import com.jme3.math.Vector2f;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
 import org.lwjgl.nuklear.NkContext;
 import org.lwjgl.nuklear.NkMouse;
 import org.lwjgl.nuklear.NkVec2;
@@ -71,6 +75,14 @@ public class NkInputListener implements RawInputListener {
     /** x and y coordinates. */
     private int x, y;
     
+    /**
+     * Flag indicating whether the events are queued, to be passed to the
+     * context by the thread that builds the user interface.
+     */
+    private boolean queued;
+    /** Events waiting to be passed to the context. */
+    private final Queue<Consumer<NkContext>> events = new ConcurrentLinkedQueue<>();
+    
     /**
      * Constructor of the class <code>NkInputListener</code>.
      * @param inputManager InputManager
@@ -102,29 +114,83 @@ public class NkInputListener implements RawInputListener {
         x = 0;
         y = 0;
         inputPointerId = -1;
+        events.clear();
     }
     
-    /*(non-Javadoc)
+    /**
+     * Sets whether the events are queued instead of being passed to the context
+     * when they are received; the queue is then emptied with
+     * {@link #flush(org.lwjgl.nuklear.NkContext)} by the thread that owns the
+     * context.
+     * 
+     * @param queued boolean
      */
-    @Override
-    public void beginInput() {
+    public void setQueued(boolean queued) {
+        this.queued = queued;
+        events.clear();
+    }
+
+    /**
+     * Returns the value of the attribute: queued
+     * @return boolean
+     */
+    public boolean isQueued() {
+        return queued;
+    }
+    
+    /**
+     * Pass the queued events to the context as a new input frame.
+     * 
+     * @param ctx NkContext
+     */
+    public void flush(NkContext ctx) {
         nk_input_begin(ctx);
+        for (Consumer<NkContext> event = events.poll(); event != null; event = events.poll()) {
+            event.accept(ctx);
+        }
+        nk_input_end(ctx);
+    }
+    
+    /**
+     * Update the cursor according to the grab state of the mouse; when the
+     * events are queued, it must be called while the context is not in use.
+     */
+    public void updateGrab() {
         NkMouse mouse = ctx.input().mouse();
         if (mouse.grab()) {
             inputManager.setCursorVisible(false);
         } else if (mouse.grabbed()) {
-            Vector2f pos = inputManager.getCursorPosition();            
-            mouse.pos().x(pos.x);
-            mouse.pos().y(height - pos.y);
+            Vector2f pos = inputManager.getCursorPosition();
+            float px = pos.x;
+            float py = height - pos.y;
+            if (queued) {
+                events.add(c -> c.input().mouse().pos().set(px, py));
+            } else {
+                mouse.pos().set(px, py);
+            }
         } else if (mouse.ungrab()) {
             inputManager.setCursorVisible(true);
         }
     }
+    
+    /*(non-Javadoc)
+     */
+    @Override
+    public void beginInput() {
+        if (queued) {
+            return;
+        }
+        nk_input_begin(ctx);
+        updateGrab();
+    }
 
     /*(non-Javadoc)
      */
     @Override
     public void endInput() {
+        if (queued) {
+            return;
+        }
         nk_input_end(ctx);
     }
 
@@ -150,6 +216,23 @@ public class NkInputListener implements RawInputListener {
         x = evt.getX();
         y = height - evt.getY();
         
+        if (queued) {
+            int mx = x, my = y;
+            events.add(c -> onMotion(c, mx, my, wheel));
+        } else {
+            onMotion(ctx, x, y, wheel);
+        }
+    }
+    
+    /**
+     * Pass a mouse motion event to the context.
+     * 
+     * @param ctx NkContext
+     * @param x int
+     * @param y int
+     * @param wheel int
+     */
+    private static void onMotion(NkContext ctx, int x, int y, int wheel) {
         nk_input_motion(ctx, x, y);
         try (MemoryStack stack = stackPush()) {
             NkVec2 scroll = NkVec2.malloc(stack)
@@ -172,7 +255,23 @@ public class NkInputListener implements RawInputListener {
             default -> NK_BUTTON_LEFT;
         };
 
-        nk_input_button(ctx, nkButton, x, y, evt.isPressed());
+        onButton(nkButton, evt.isPressed());
+    }
+    
+    /**
+     * Pass a mouse button event at the current position to the context, or
+     * queue it.
+     * 
+     * @param button Nuklear button
+     * @param pressed boolean
+     */
+    private void onButton(int button, boolean pressed) {
+        if (queued) {
+            int mx = x, my = y;
+            events.add(c -> nk_input_button(c, button, mx, my, pressed));
+        } else {
+            nk_input_button(ctx, button, x, y, pressed);
+        }
     }
 
     /*(non-Javadoc)
@@ -180,11 +279,29 @@ public class NkInputListener implements RawInputListener {
     @Override
     public void onKeyEvent(KeyInputEvent evt) {
         boolean press = evt.isPressed();
+        char keyChar = evt.getKeyChar();
+        int keyCode  = evt.getKeyCode();
+        if (queued) {
+            events.add(c -> onKey(c, keyCode, keyChar, press));
+        } else {
+            onKey(ctx, keyCode, keyChar, press);
+        }
+    }
+    
+    /**
+     * Pass a key event to the context.
+     * 
+     * @param ctx NkContext
+     * @param keyCode int
+     * @param keyChar char
+     * @param press boolean
+     */
+    private static void onKey(NkContext ctx, int keyCode, char keyChar, boolean press) {
         if (press) {
-            nk_input_unicode(ctx, evt.getKeyChar());
+            nk_input_unicode(ctx, keyChar);
         }
         
-        switch (evt.getKeyCode()) {
+        switch (keyCode) {
             case KeyInput.KEY_DELETE -> nk_input_key(ctx, NK_KEY_DEL, press);
             case KeyInput.KEY_RETURN -> nk_input_key(ctx, NK_KEY_ENTER, press);
             case KeyInput.KEY_TAB -> nk_input_key(ctx, NK_KEY_TAB, press);
@@ -247,7 +364,7 @@ public class NkInputListener implements RawInputListener {
                 }
 
                 inputPointerId = evt.getPointerId();
-                nk_input_button(ctx, NK_BUTTON_LEFT, x, y, true);
+                onButton(NK_BUTTON_LEFT, true);
             }
             case UP -> {
                 if (inputPointerId != evt.getPointerId()) {
@@ -257,7 +374,7 @@ public class NkInputListener implements RawInputListener {
                 }
 
                 inputPointerId = -1;
-                nk_input_button(ctx, NK_BUTTON_LEFT, x, y, false);
+                onButton(NK_BUTTON_LEFT, false);
             }
         }
     }
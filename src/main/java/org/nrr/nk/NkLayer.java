@@ -0,0 +1,325 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.material.Material;
+import com.jme3.material.RenderState;
+import com.jme3.math.ColorRGBA;
+import com.jme3.renderer.RenderManager;
+import com.jme3.renderer.Renderer;
+import com.jme3.texture.FrameBuffer;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture.MagFilter;
+import com.jme3.texture.Texture.MinFilter;
+import com.jme3.texture.Texture2D;
+import com.jme3.ui.Picture;
+
+import org.lwjgl.nuklear.NkContext;
+import org.lwjgl.nuklear.NkDrawCommand;
+import org.lwjgl.nuklear.NkHandle;
+import org.lwjgl.nuklear.NkRect;
+import org.lwjgl.system.MemoryStack;
+
+import static org.lwjgl.nuklear.Nuklear.*;
+
+/**
+ * Offscreen layer where the output of Nuklear is cached, so that it can be
+ * composited with a single textured quad on the frames where it does not change.
+ * <p>
+ * The layer stores premultiplied colors, it must be filled with the blending
+ * enabled by {@link NkGeometry#setPremultipliedOutput(boolean)}.
+ * </p>
+ * <p>
+ * The layer of a window is identified by a tag, written as the user data of
+ * the commands of the window when it begins; Nuklear opens a new draw command
+ * wherever the user data changes, so the draws of a tagged window are never
+ * mixed with those of another window.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+final class NkLayer {
+    
+    /** Tag of the commands that belong to no layer. */
+    static final int NO_TAG = 0;
+    
+    /** Quad that composites the layer. */
+    private final Picture quad;
+    
+    /** Offscreen buffer. */
+    private FrameBuffer frameBuffer;
+    /** Texture attached to the offscreen buffer. */
+    private Texture2D texture;
+    
+    /** Flag indicating whether the layer holds a complete frame. */
+    private boolean valid;
+    
+    /** Seconds between two refreshes of the layer. */
+    private float interval;
+    /** Seconds elapsed since the last refresh. */
+    private float elapsed;
+    
+    /** Address of the window cached in the current frame, {@code 0} if none. */
+    private long window;
+    /** Tag of the commands of the window, {@link #NO_TAG} if none. */
+    private int tag = NO_TAG;
+
+    /**
+     * Constructor of the class <code>NkLayer</code>.
+     * 
+     * @param assetManager AssetManager
+     */
+    NkLayer(AssetManager assetManager) {
+        Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
+        mat.getAdditionalRenderState().setBlendMode(RenderState.BlendMode.PremultAlpha);
+        mat.getAdditionalRenderState().setFaceCullMode(RenderState.FaceCullMode.Off);
+        mat.getAdditionalRenderState().setDepthTest(false);
+        mat.getAdditionalRenderState().setDepthWrite(false);
+        
+        quad = new Picture("NkLayer");
+        quad.setMaterial(mat);
+    }
+    
+    /**
+     * Adjust the size of the offscreen buffer; if it changes, the layer is
+     * recreated and its content is lost.
+     * 
+     * @param renderer Renderer
+     * @param width int
+     * @param height int
+     * @return {@code true} if the layer was recreated
+     */
+    boolean resize(Renderer renderer, int width, int height) {
+        if (frameBuffer != null 
+                && frameBuffer.getWidth() == width 
+                && frameBuffer.getHeight() == height) {
+            return false;
+        }
+        destroy(renderer);
+        
+        texture = new Texture2D(width, height, Image.Format.RGBA8);
+        texture.setMagFilter(MagFilter.Nearest);
+        texture.setMinFilter(MinFilter.NearestNoMipMaps);
+        
+        frameBuffer = new FrameBuffer(width, height, 1);
+        frameBuffer.addColorTarget(FrameBuffer.FrameBufferTarget.newTarget(texture));
+        
+        quad.getMaterial().setTexture("ColorMap", texture);
+        setBounds(0, 0, width, height);
+        return true;
+    }
+    
+    /**
+     * Sets the area of the screen where the layer is composited.
+     * 
+     * @param x float
+     * @param y float
+     * @param width float
+     * @param height float
+     */
+    void setBounds(float x, float y, float width, float height) {
+        quad.setPosition(x, y);
+        quad.setWidth(width);
+        quad.setHeight(height);
+        quad.updateGeometricState();
+    }
+    
+    /**
+     * Bind the offscreen buffer and clear it to transparent; the layer is
+     * invalid until {@link #setValid(boolean)} is called.
+     * 
+     * @param renderer Renderer
+     */
+    void begin(Renderer renderer) {
+        valid = false;
+        renderer.setFrameBuffer(frameBuffer);
+        renderer.setViewPort(0, 0, frameBuffer.getWidth(), frameBuffer.getHeight());
+        renderer.setBackgroundColor(ColorRGBA.BlackNoAlpha);
+        renderer.clearBuffers(true, false, false);
+    }
+    
+    /**
+     * Draw the layer on the current frame buffer.
+     * 
+     * @param renderManager RenderManager
+     */
+    void composite(RenderManager renderManager) {
+        renderManager.renderGeometry(quad);
+    }
+    
+    /**
+     * Release the offscreen buffer and its texture.
+     * 
+     * @param renderer Renderer
+     */
+    void destroy(Renderer renderer) {
+        if (frameBuffer != null) {
+            renderer.deleteFrameBuffer(frameBuffer);
+            renderer.deleteImage(texture.getImage());
+        }
+        frameBuffer = null;
+        texture     = null;
+        valid       = false;
+    }
+
+    /**
+     * Sets whether the layer holds a complete frame.
+     * 
+     * @param valid boolean
+     */
+    void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    /**
+     * Returns the value of the attribute: valid
+     * @return boolean
+     */
+    boolean isValid() {
+        return valid;
+    }
+    
+    /**
+     * Advance the time elapsed since the last refresh.
+     * 
+     * @param tpf float
+     */
+    void update(float tpf) {
+        elapsed += tpf;
+    }
+    
+    /**
+     * Returns {@code true} if the refresh interval has elapsed or the layer
+     * does not hold a complete frame.
+     * 
+     * @return boolean
+     */
+    boolean isDue() {
+        return !valid || elapsed >= interval;
+    }
+    
+    /**
+     * Restart the refresh interval.
+     */
+    void refreshed() {
+        elapsed = 0;
+    }
+
+    /**
+     * Sets the seconds between two refreshes of the layer.
+     * 
+     * @param interval float
+     */
+    void setInterval(float interval) {
+        this.interval = interval;
+    }
+    
+    /**
+     * Returns the value of the attribute: interval
+     * @return float
+     */
+    float getInterval() {
+        return interval;
+    }
+    
+    /**
+     * Sets the window cached in the current frame.
+     * 
+     * @param window address of the window, {@code 0} if none
+     */
+    void setWindow(long window) {
+        this.window = window;
+    }
+
+    /**
+     * Returns the value of the attribute: window
+     * @return long
+     */
+    long getWindow() {
+        return window;
+    }
+    
+    /**
+     * Sets the tag of the commands of the window.
+     * 
+     * @param tag a positive tag, {@link #NO_TAG} if none
+     */
+    void setTag(int tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * Returns the value of the attribute: tag
+     * @return int
+     */
+    int getTag() {
+        return tag;
+    }
+    
+    /**
+     * Begin a window as {@code nk_begin_titled} does, with its commands tagged
+     * through their user data; the user data of the context is restored once
+     * the window has begun, so the commands of the other windows keep it.
+     * 
+     * @param ctx NkContext
+     * @param tag tag of the commands of the window
+     * @param name name of the window
+     * @param title title of the window
+     * @param bounds NkRect
+     * @param flags window flags
+     * @return {@code true} if the window is open and its content must be built
+     */
+    static boolean begin(NkContext ctx, int tag, String name, String title, NkRect bounds, int flags) {
+        long userdata = ctx.userdata().ptr();
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            NkHandle handle = NkHandle.malloc(stack);
+            nk_push_userdata(ctx, handle.ptr(tag));
+            boolean open = nk_begin_titled(ctx, name, title, bounds, flags);
+            nk_push_userdata(ctx, handle.ptr(userdata));
+            return open;
+        }
+    }
+    
+    /**
+     * Returns the tag of a draw command converted by Nuklear.
+     * 
+     * @param cmd NkDrawCommand
+     * @return the tag of its layer, or {@link #NO_TAG} if its user data is not
+     * a tag
+     */
+    static int tagOf(NkDrawCommand cmd) {
+        long userdata = cmd.userdata().ptr();
+        return userdata > 0 && userdata <= Integer.MAX_VALUE ? (int) userdata : NO_TAG;
+    }
+}
@@ -30,14 +30,21 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package org.nrr.nk;
 
+import com.jme3.renderer.Renderer;
 import com.jme3.scene.Mesh;
 import com.jme3.scene.VertexBuffer;
+import com.jme3.scene.VertexBuffer.Format;
 import com.jme3.scene.VertexBuffer.Type;
 import com.jme3.scene.VertexBuffer.Usage;
 import com.jme3.util.BufferUtils;
 
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A mesh that preloads the conditions for the Nuklear buffers.
@@ -48,24 +55,90 @@ import java.nio.ShortBuffer;
  */
 public class NkMesh extends Mesh {
     
+    /** Initial number of ranges of the element buffer. */
+    private static final int INITIAL_RANGES = 16;
+    
+    /** Size in bytes of each vertex written by Nuklear. */
+    private static final int VERTEX_STRIDE = 20;
+    /** Offset in bytes of the texture coordinates within a vertex. */
+    private static final int TEXCOORD_OFFSET = 8;
+    /** Offset in bytes of the color within a vertex. */
+    private static final int COLOR_OFFSET = 16;
+    
+    /**
+     * {@code true} if the attributes read the vertices directly from the 
+     * Nuklear layout.
+     */
+    private final boolean interleaved;
+    /** Number of vertices in the interleaved buffer. */
+    private int vertexCount;
+    
+    /**
+     * Index buffers that expose each range of the shared element buffer; they
+     * are registered as levels of detail so that the geometry can select them.
+     */
+    private VertexBuffer[] ranges;
+    /**
+     * Buffers replaced because their format changed, whose GL buffers are
+     * deleted by {@link #deleteDiscarded(Renderer)}.
+     */
+    private final List<VertexBuffer> discarded = new ArrayList<>();
+    
     /**
      * Constructor of the class <code>NkMesh</code>.
      */
     public NkMesh() {
+        this(NkDisplay.RenderMode.COMMAND);
+    }
+    
+    /**
+     * Constructor of the class <code>NkMesh</code>.
+     * 
+     * @param mode the mode in which the buffers will be drawn
+     */
+    public NkMesh(NkDisplay.RenderMode mode) {
+        this.interleaved = mode == NkDisplay.RenderMode.INTERLEAVED;
+        
         VertexBuffer vertexPos = new VertexBuffer(Type.Position);
         VertexBuffer vertexTexCoord = new VertexBuffer(Type.TexCoord);
         VertexBuffer vertexColor = new VertexBuffer(Type.Color);
-        VertexBuffer indexBuffer = new VertexBuffer(Type.Index);
         
-        vertexPos.setupData(Usage.Stream, 2, VertexBuffer.Format.Float, BufferUtils.createFloatBuffer(1));
-        vertexTexCoord.setupData(Usage.Stream, 2, VertexBuffer.Format.Float, BufferUtils.createFloatBuffer(1));
-        vertexColor.setupData(Usage.Stream, 4, VertexBuffer.Format.Float, BufferUtils.createFloatBuffer(1));
-        indexBuffer.setupData(Usage.Stream, 3, VertexBuffer.Format.UnsignedShort, BufferUtils.createShortBuffer(1));
+        if (interleaved) {
+            /* The attributes only describe the layout of the Nuklear vertices;
+             * the data is sent to the GPU through the interleaved buffer.
+             */
+            VertexBuffer vertexData = new VertexBuffer(Type.InterleavedData);
+            vertexData.setupData(Usage.Stream, 1, Format.UnsignedByte, BufferUtils.createByteBuffer(VERTEX_STRIDE));
+            
+            vertexPos.setupData(Usage.Stream, 2, Format.Float, BufferUtils.createFloatBuffer(2));
+            vertexPos.setOffset(0);
+            vertexPos.setStride(VERTEX_STRIDE);
+            
+            vertexTexCoord.setupData(Usage.Stream, 2, Format.Float, BufferUtils.createFloatBuffer(2));
+            vertexTexCoord.setOffset(TEXCOORD_OFFSET);
+            vertexTexCoord.setStride(VERTEX_STRIDE);
+            
+            vertexColor.setupData(Usage.Stream, 4, Format.UnsignedByte, BufferUtils.createByteBuffer(4));
+            vertexColor.setNormalized(true);
+            vertexColor.setOffset(COLOR_OFFSET);
+            vertexColor.setStride(VERTEX_STRIDE);
+            
+            setBuffer(vertexData);
+        } else {
+            vertexPos.setupData(Usage.Stream, 2, Format.Float, BufferUtils.createFloatBuffer(1));
+            vertexTexCoord.setupData(Usage.Stream, 2, Format.Float, BufferUtils.createFloatBuffer(1));
+            vertexColor.setupData(Usage.Stream, 4, Format.Float, BufferUtils.createFloatBuffer(1));
+        }
         
         setBuffer(vertexPos);
         setBuffer(vertexTexCoord);
         setBuffer(vertexColor);
-        setBuffer(indexBuffer);
+        
+        if (mode == NkDisplay.RenderMode.COMMAND) {
+            VertexBuffer indexBuffer = new VertexBuffer(Type.Index);
+            indexBuffer.setupData(Usage.Stream, 3, Format.UnsignedShort, BufferUtils.createShortBuffer(1));
+            setBuffer(indexBuffer);
+        }
     }
     
     /**
@@ -90,7 +163,229 @@ public class NkMesh extends Mesh {
      * @return NkMesh
      */
     public NkMesh updateBuffer(VertexBuffer.Type type, ShortBuffer buffer, int sizeof) {
+        checkFormat(type, Format.UnsignedShort);
         setBuffer(type, sizeof, buffer);
         return this;
     }
+    
+    /**
+     * Update a specific buffer in this mesh.
+     * 
+     * @param type VertexBuffer.Type
+     * @param buffer IntBuffer
+     * @param sizeof int
+     * @return NkMesh
+     */
+    public NkMesh updateBuffer(VertexBuffer.Type type, IntBuffer buffer, int sizeof) {
+        checkFormat(type, Format.UnsignedInt);
+        setBuffer(type, sizeof, buffer);
+        return this;
+    }
+    
+    /**
+     * Remove a buffer whose format differs from the one that will be set, since
+     * the format of a buffer cannot change once created; its GL buffer is
+     * deleted later, on the render thread.
+     * 
+     * @param type VertexBuffer.Type
+     * @param format VertexBuffer.Format
+     */
+    private void checkFormat(VertexBuffer.Type type, Format format) {
+        VertexBuffer vb = getBuffer(type);
+        if (vb != null && vb.getFormat() != format) {
+            clearBuffer(type);
+            discarded.add(vb);
+        }
+    }
+    
+    /**
+     * Update the interleaved buffer with the vertices exactly as Nuklear wrote
+     * them.
+     * 
+     * @param buffer vertices in the Nuklear layout
+     * @param count number of vertices
+     * @return NkMesh
+     */
+    public NkMesh updateInterleaved(ByteBuffer buffer, int count) {
+        if (!interleaved) {
+            throw new IllegalStateException("The mesh does not use interleaved data");
+        }
+        getBuffer(Type.InterleavedData).updateData(buffer);
+        vertexCount = count;
+        return this;
+    }
+    
+    /**
+     * Returns {@code true} if the attributes read the vertices directly from
+     * the Nuklear layout.
+     * 
+     * @return boolean
+     */
+    public boolean isInterleaved() {
+        return interleaved;
+    }
+    
+    /*(non-Javadoc)
+     */
+    @Override
+    public void updateCounts() {
+        // The attributes of an interleaved mesh have no data of their own, 
+        // the counts are given by updateInterleaved.
+        if (!interleaved) {
+            super.updateCounts();
+        }
+    }
+
+    /*(non-Javadoc)
+     */
+    @Override
+    public int getVertexCount() {
+        return interleaved ? vertexCount : super.getVertexCount();
+    }
+
+    /*(non-Javadoc)
+     */
+    @Override
+    public int getTriangleCount() {
+        return interleaved ? vertexCount / 3 : super.getTriangleCount();
+    }
+    
+    /**
+     * Update a range of the element buffer; the range can then be drawn by
+     * selecting it as the level of detail of the geometry.
+     * 
+     * @param range range index
+     * @param buffer elements of the range
+     * @return NkMesh
+     */
+    public NkMesh updateRange(int range, ShortBuffer buffer) {
+        return updateRange(range, Format.UnsignedShort, buffer);
+    }
+    
+    /**
+     * Update a range of the element buffer with 32-bit elements; the range can 
+     * then be drawn by selecting it as the level of detail of the geometry.
+     * 
+     * @param range range index
+     * @param buffer elements of the range
+     * @return NkMesh
+     */
+    public NkMesh updateRange(int range, IntBuffer buffer) {
+        return updateRange(range, Format.UnsignedInt, buffer);
+    }
+    
+    /**
+     * Update a range of the element buffer.
+     * 
+     * @param range range index
+     * @param format format of the elements
+     * @param buffer elements of the range
+     * @return NkMesh
+     */
+    private NkMesh updateRange(int range, Format format, Buffer buffer) {
+        ensureRanges(range + 1);
+        
+        VertexBuffer vb = ranges[range];
+        if (vb == null || vb.getFormat() != format) {
+            if (vb != null) {
+                discarded.add(vb);
+            }
+            vb = new VertexBuffer(Type.Index);
+            vb.setupData(Usage.Stream, 3, format, buffer);
+            ranges[range] = vb;
+        } else {
+            vb.updateData(buffer);
+        }
+        return this;
+    }
+    
+    /**
+     * Give the interleaved buffer and the ranges buffers of their own, so that
+     * the mesh does not keep views of the Nuklear buffers once they are freed;
+     * the mesh must be updated again before it is drawn.
+     */
+    public void releaseViews() {
+        if (interleaved) {
+            getBuffer(Type.InterleavedData).updateData(BufferUtils.createByteBuffer(VERTEX_STRIDE));
+            vertexCount = 0;
+        }
+        if (ranges == null) {
+            return;
+        }
+        for (VertexBuffer vb : ranges) {
+            if (vb == null) {
+                continue;
+            }
+            if (vb.getFormat() == Format.UnsignedInt) {
+                vb.updateData(BufferUtils.createIntBuffer(0));
+            } else {
+                vb.updateData(BufferUtils.createShortBuffer(0));
+            }
+        }
+    }
+    
+    /**
+     * Delete the buffers of the mesh and of its ranges from the GPU.
+     * 
+     * @param renderer Renderer
+     */
+    public void deleteBuffers(Renderer renderer) {
+        deleteDiscarded(renderer);
+        for (VertexBuffer vb : getBufferList()) {
+            renderer.deleteBuffer(vb);
+        }
+        if (ranges == null) {
+            return;
+        }
+        for (VertexBuffer vb : ranges) {
+            if (vb != null) {
+                renderer.deleteBuffer(vb);
+            }
+        }
+    }
+    
+    /**
+     * Delete from the GPU the buffers replaced because their format changed
+     * (16-bit and 32-bit elements); it must be called on the render thread.
+     * 
+     * @param renderer Renderer
+     */
+    public void deleteDiscarded(Renderer renderer) {
+        for (int i = 0; i < discarded.size(); i++) {
+            renderer.deleteBuffer(discarded.get(i));
+        }
+        discarded.clear();
+    }
+    
+    /**
+     * Returns the number of buffers replaced and not deleted yet.
+     * 
+     * @return int
+     */
+    int getDiscardedCount() {
+        return discarded.size();
+    }
+    
+    /**
+     * Make sure there is room for the given number of ranges.
+     * 
+     * @param count int
+     */
+    private void ensureRanges(int count) {
+        if (ranges != null && count <= ranges.length) {
+            return;
+        }
+        
+        int capacity = ranges == null ? INITIAL_RANGES : ranges.length;
+        while (capacity < count) {
+            capacity *= 2;
+        }
+        
+        VertexBuffer[] newRanges = new VertexBuffer[capacity];
+        if (ranges != null) {
+            System.arraycopy(ranges, 0, newRanges, 0, ranges.length);
+        }
+        ranges = newRanges;
+        setLodLevels(ranges);
+    }
 }
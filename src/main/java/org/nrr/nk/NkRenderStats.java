@@ -0,0 +1,229 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+/**
+ * Class that collects the counters of the last frame drawn by an
+ * {@code NkDisplay}.
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class NkRenderStats {
+    
+    /** Number of commands generated by Nuklear. */
+    private int commands;
+    /** Number of draws sent to the renderer. */
+    private int draws;
+    /** Number of draws that reused the material applied by a previous draw. */
+    private int leanDraws;
+    /** Time spent sending the draws to the renderer, in nanoseconds. */
+    private long drawTime;
+    /** Number of draws saved by merging commands. */
+    private int merged;
+    /** Number of texture changes skipped because the texture was already applied. */
+    private int skippedTextures;
+    /** Number of clipping changes skipped because the rectangle was already applied. */
+    private int skippedClips;
+    /** Number of draws dropped because their clipping rectangle is not visible. */
+    private int culled;
+    /** Whether the buffers converted in a previous frame were reused. */
+    private boolean reused;
+
+    /**
+     * Constructor of the class <code>NkRenderStats</code>.
+     */
+    NkRenderStats() {
+    }
+    
+    /**
+     * Reset the counters for a new frame.
+     */
+    void reset() {
+        commands = 0;
+        draws    = 0;
+        merged   = 0;
+        reused   = false;
+        
+        leanDraws = 0;
+        drawTime  = 0;
+        
+        skippedTextures = 0;
+        skippedClips    = 0;
+        culled          = 0;
+    }
+    
+    /**
+     * Register the commands of a frame.
+     * 
+     * @param commands number of commands
+     * @param merged number of draws saved by merging
+     */
+    void onCommands(int commands, int merged) {
+        this.commands += commands;
+        this.merged   += merged;
+    }
+    
+    /**
+     * Register that the frame was drawn from the buffers already converted.
+     */
+    void onReused() {
+        reused = true;
+    }
+    
+    /**
+     * Register a texture change that was not needed.
+     */
+    void onTextureSkipped() {
+        skippedTextures++;
+    }
+    
+    /**
+     * Register a clipping change that was not needed.
+     */
+    void onClipSkipped() {
+        skippedClips++;
+    }
+    
+    /**
+     * Register a draw dropped because it is not visible.
+     */
+    void onCulled() {
+        culled++;
+    }
+    
+    /**
+     * Register a draw.
+     */
+    void onDraw() {
+        draws++;
+    }
+    
+    /**
+     * Register a draw and the time spent sending it to the renderer.
+     * 
+     * @param nanos time in nanoseconds
+     */
+    void onDraw(long nanos) {
+        draws++;
+        drawTime += nanos;
+    }
+    
+    /**
+     * Register a draw that reused the material applied by a previous draw.
+     */
+    void onLeanDraw() {
+        leanDraws++;
+    }
+
+    /**
+     * Returns the value of the attribute: commands
+     * @return int
+     */
+    public int getCommands() {
+        return commands;
+    }
+
+    /**
+     * Returns the value of the attribute: draws
+     * @return int
+     */
+    public int getDraws() {
+        return draws;
+    }
+
+    /**
+     * Returns the value of the attribute: leanDraws
+     * @return int
+     */
+    public int getLeanDraws() {
+        return leanDraws;
+    }
+
+    /**
+     * Returns the time spent sending the draws of the user interface to the
+     * renderer, in milliseconds.
+     * 
+     * @return float
+     */
+    public float getDrawTime() {
+        return drawTime / 1_000_000f;
+    }
+
+    /**
+     * Returns the value of the attribute: merged
+     * @return int
+     */
+    public int getMerged() {
+        return merged;
+    }
+
+    /**
+     * Returns the value of the attribute: skippedTextures
+     * @return int
+     */
+    public int getSkippedTextures() {
+        return skippedTextures;
+    }
+
+    /**
+     * Returns the value of the attribute: skippedClips
+     * @return int
+     */
+    public int getSkippedClips() {
+        return skippedClips;
+    }
+
+    /**
+     * Returns the value of the attribute: culled
+     * @return int
+     */
+    public int getCulled() {
+        return culled;
+    }
+
+    /**
+     * Returns the value of the attribute: reused
+     * @return boolean
+     */
+    public boolean isReused() {
+        return reused;
+    }
+
+    /*(non-Javadoc)
+     */
+    @Override
+    public String toString() {
+        return "NkRenderStats{" + "commands=" + commands + ", draws=" + draws + ", leanDraws=" + leanDraws + ", drawTime=" + getDrawTime() + ", merged=" + merged + ", reused=" + reused 
+                + ", skippedTextures=" + skippedTextures + ", skippedClips=" + skippedClips + ", culled=" + culled + '}';
+    }
+}
@@ -0,0 +1,345 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.renderer.RenderManager;
+import com.jme3.texture.Texture;
+
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.lwjgl.nuklear.NkAllocator;
+import org.lwjgl.nuklear.NkPluginAlloc;
+import org.lwjgl.nuklear.NkPluginFree;
+import org.lwjgl.nuklear.NkQueryFontGlyphCallback;
+import org.lwjgl.nuklear.NkTextWidthCallback;
+import org.lwjgl.nuklear.NkUserFont;
+
+import org.nrr.nk.system.BufferPool;
+import org.nrr.nk.system.ObjectPool;
+import org.nrr.nk.system.Vertex;
+import org.nrr.nk.system.VertexPool;
+
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Resources shared by several {@code NkDisplay}: the Nuklear allocator, the
+ * texture registry, the default font, the null texture and the buffer pools.
+ * <p>
+ * Every display that uses a hub holds a reference to it, released by
+ * {@link NkDisplay#destroy(boolean)}; the fonts are also counted by the
+ * displays that use them, so a font is only freed when the last of them
+ * stops using it. The handlers returned by several builds of the same font
+ * share its count, as they share its callbacks and the handle of its texture.
+ * All the displays of a hub must draw with the same renderer.
+ * </p>
+ * <p>
+ * A hub created with its constructor owns its allocator. The private hubs of
+ * the displays created without a hub share a single allocator instead, as
+ * the displays did before the hubs, so a display does not create closures of
+ * its own.
+ * </p>
+ * <pre><code>
+ *   NkResourceHub hub = new NkResourceHub(assetManager);
+ *   NkDisplay gui   = new NkDisplay(assetManager, inputManager, renderManager, config, hub);
+ *   NkDisplay panel = new NkDisplay(assetManager, null, renderManager, config, hub);
+ * </code></pre>
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class NkResourceHub {
+    
+    /** Allocator shared by the private hubs, {@code null} until used. */
+    private static NkAllocator sharedAllocator;
+    
+    /** Textures referenced by the displays, by their identifier. */
+    private final NkTextureRegistry textures = new NkTextureRegistry();
+    /** Number of displays using each font, by the Nuklear font of its handlers. */
+    private final Map<NkUserFont, Integer> fonts = new IdentityHashMap<>();
+    
+    /** Dedicated buffer grouping for drawing elements. */
+    private final BufferPool<ShortBuffer> indexPool = new BufferPool<>(ShortBuffer.class);
+    /** Dedicated buffer grouping for the elements that do not fit in 16 bits. */
+    private final BufferPool<IntBuffer> wideIndexPool = new BufferPool<>(IntBuffer.class);
+    /** Grouping of vertices by drawing segment. */
+    private final ObjectPool<Vertex> vertexPool = new VertexPool();
+    
+    /** Memory manager of Nuklear. */
+    private final NkAllocator allocator;
+    /** Flag indicating whether the allocator is the one of the private hubs. */
+    private final boolean shared;
+    /** Asset manager. */
+    private final AssetManager assetManager;
+    
+    /** Font used by the displays that have not been given one. */
+    private NkBitmapFontHandler defaultFont;
+    /** Texture of 1x1 used by the shapes when the font has no white texel. */
+    private Texture nullTexture;
+    /** Number of displays using the hub. */
+    private int references;
+
+    /**
+     * Constructor of the class <code>NkResourceHub</code>.
+     * 
+     * @param assetManager AssetManager
+     */
+    public NkResourceHub(AssetManager assetManager) {
+        this(assetManager, createAllocator(), false);
+    }
+    
+    /**
+     * Constructor of the class <code>NkResourceHub</code>.
+     * 
+     * @param assetManager AssetManager
+     * @param allocator NkAllocator
+     * @param shared {@code true} if the allocator is the one of the private hubs
+     */
+    private NkResourceHub(AssetManager assetManager, NkAllocator allocator, boolean shared) {
+        this.assetManager = assetManager;
+        this.allocator    = allocator;
+        this.shared       = shared;
+    }
+    
+    /**
+     * Returns a hub used by a single display, with the allocator shared by all
+     * the private hubs.
+     * 
+     * @param assetManager AssetManager
+     * @return NkResourceHub
+     */
+    static NkResourceHub createPrivate(AssetManager assetManager) {
+        synchronized (NkResourceHub.class) {
+            if (sharedAllocator == null) {
+                sharedAllocator = createAllocator();
+            }
+            return new NkResourceHub(assetManager, sharedAllocator, true);
+        }
+    }
+    
+    /**
+     * Returns a new allocator of Nuklear.
+     * 
+     * @return NkAllocator
+     */
+    private static NkAllocator createAllocator() {
+        return NkAllocator.create()
+                    .alloc((handle, old, size) -> nmemAllocChecked(size))
+                    .mfree((handle, ptr) -> nmemFree(ptr));
+    }
+    
+    /**
+     * Register a display that uses the hub.
+     */
+    synchronized void retain() {
+        if (references < 0) {
+            throw new IllegalStateException("The resource hub has been released");
+        }
+        references++;
+    }
+    
+    /**
+     * Release the reference of a display; when no display uses the hub, the
+     * textures are forgotten and, if requested, the allocator is freed.
+     * <p>
+     * The allocator shared by the private hubs is only freed when requested,
+     * as the displays did before the hubs; the next private hub creates a new
+     * one.
+     * </p>
+     * 
+     * @param allocator {@code true} if the allocator is freed when the hub is
+     * no longer used
+     */
+    synchronized void release(boolean allocator) {
+        if (references <= 0 || --references > 0) {
+            return;
+        }
+        textures.clear();
+        nullTexture = null;
+        defaultFont = null;
+        
+        if (allocator) {
+            if (shared) {
+                synchronized (NkResourceHub.class) {
+                    if (sharedAllocator == this.allocator) {
+                        sharedAllocator = null;
+                    }
+                }
+            }
+            NkPluginAlloc pluginAlloc = this.allocator.alloc();
+            if (pluginAlloc != null) {
+                pluginAlloc.free();
+            }
+
+            NkPluginFree pluginFree = this.allocator.mfree();
+            if (pluginFree != null) {
+                pluginFree.free();
+            }
+            references = -1;
+        }
+    }
+    
+    /**
+     * Register a display that uses a font.
+     * 
+     * @param font NkBitmapFontHandler
+     */
+    synchronized void acquireFont(NkBitmapFontHandler font) {
+        fonts.merge(font.userFont(), 1, Integer::sum);
+    }
+    
+    /**
+     * Release the reference of a display to a font; the callbacks and the
+     * texture of the font are freed when no display uses it.
+     * 
+     * @param font NkBitmapFontHandler
+     */
+    synchronized void releaseFont(NkBitmapFontHandler font) {
+        NkUserFont userFont = font.userFont();
+        Integer count = fonts.get(userFont);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            fonts.put(userFont, count - 1);
+            return;
+        }
+        fonts.remove(userFont);
+        if (defaultFont != null && defaultFont.userFont() == userFont) {
+            defaultFont = null;
+        }
+        
+        if (userFont == null) {
+            return;
+        }
+        NkQueryFontGlyphCallback queryFontGlyphCallback  = userFont.query();
+        if (queryFontGlyphCallback != null) {
+            queryFontGlyphCallback.free();
+        }
+
+        NkTextWidthCallback widthCallback = userFont.width();
+        if (widthCallback != null) {
+            widthCallback.free();
+        }
+        textures.release(userFont.texture().id());
+    }
+    
+    /**
+     * Returns the font used by the displays that have not been given one,
+     * loading it the first time.
+     * 
+     * @param display display that requests it
+     * @return NkBitmapFontHandler
+     */
+    synchronized NkBitmapFontHandler getDefaultFont(NkDisplay display) {
+        if (defaultFont == null) {
+            defaultFont = NkBitmapFontHandler.builder()
+                                .display(display)
+                                .assetManager(assetManager)
+                                .font("Interface/Fonts/Default.fnt")
+                                .size(14)
+                                .build();
+        }
+        return defaultFont;
+    }
+    
+    /**
+     * Returns the texture of 1x1 used by the shapes, preloading it the first
+     * time to obtain its identifier.
+     * 
+     * @param rm RenderManager
+     * @return Texture
+     */
+    synchronized Texture getNullTexture(RenderManager rm) {
+        if (nullTexture == null) {
+            NkGeometry nktmp = new NkGeometry(assetManager, true);
+            rm.preloadScene(nktmp);
+            
+            nullTexture = nktmp.getMaterial()
+                            .getTextureParam("ColorMap")
+                            .getTextureValue();
+            textures.register(nullTexture);
+        }
+        return nullTexture;
+    }
+
+    /**
+     * Returns the value of the attribute: textures
+     * @return NkTextureRegistry
+     */
+    NkTextureRegistry getTextures() {
+        return textures;
+    }
+
+    /**
+     * Returns the value of the attribute: indexPool
+     * @return BufferPool
+     */
+    BufferPool<ShortBuffer> getIndexPool() {
+        return indexPool;
+    }
+
+    /**
+     * Returns the value of the attribute: wideIndexPool
+     * @return BufferPool
+     */
+    BufferPool<IntBuffer> getWideIndexPool() {
+        return wideIndexPool;
+    }
+
+    /**
+     * Returns the value of the attribute: vertexPool
+     * @return ObjectPool
+     */
+    ObjectPool<Vertex> getVertexPool() {
+        return vertexPool;
+    }
+
+    /**
+     * Returns the value of the attribute: allocator
+     * @return NkAllocator
+     */
+    public NkAllocator getAllocator() {
+        return allocator;
+    }
+
+    /**
+     * Returns the number of displays using the hub.
+     * @return int
+     */
+    public synchronized int getReferences() {
+        return Math.max(references, 0);
+    }
+}
@@ -0,0 +1,626 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+import com.jme3.math.ColorRGBA;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.texture.Texture2D;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.texture.image.ImageRaster;
+import com.jme3.util.BufferUtils;
+import com.jme3.util.NativeObject;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.lwjgl.nuklear.NkImage;
+import org.lwjgl.nuklear.NkRect;
+import org.lwjgl.system.MemoryStack;
+
+import static org.lwjgl.nuklear.Nuklear.*;
+
+/**
+ * Runtime atlas that packs small images into shared textures (pages), so that
+ * Nuklear draws consecutive images of the same page with a single command.
+ * <p>
+ * Each image added returns a {@code NkImage} whose texture is the page and
+ * whose region points to the image within it; the handle is owned by the atlas
+ * and stays valid (its region is updated in place) until it is removed. The
+ * images are packed in shelves; the space of the removed images is recovered
+ * by {@link #defragment()}, which is also done automatically before a new page
+ * is needed.
+ * </p>
+ * <p>
+ * Adding or removing an image uploads only its region of the page; the whole
+ * page is uploaded when it is created or defragmented.
+ * </p>
+ * <pre><code>
+ *   NkTextureAtlas atlas = new NkTextureAtlas(display);
+ *   NkImage icon = atlas.add(assetManager.loadTexture("Icons/save.png"));
+ *   ...
+ *   nk_image(ctx, icon);
+ * </code></pre>
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class NkTextureAtlas {
+    
+    /** Default size of the pages. */
+    public static final int DEFAULT_PAGE_SIZE = 1024;
+    /** Default maximum size of the images accepted. */
+    public static final int DEFAULT_MAX_IMAGE_SIZE = 256;
+    
+    /** Transparent pixels around each image, to avoid bleeding when filtering. */
+    private static final int PADDING = 1;
+    /** Bytes per pixel of the pages (RGBA8). */
+    private static final int PIXEL_SIZE = 4;
+    
+    /**
+     * A horizontal strip of a page where images of similar height are placed
+     * from left to right.
+     */
+    private static final class Shelf {
+        /** Top of the shelf. */
+        final int y;
+        /** Height of the shelf. */
+        final int height;
+        /** First free column. */
+        int x;
+
+        /**
+         * Constructor of the class <code>Shelf</code>.
+         * 
+         * @param y int
+         * @param height int
+         */
+        Shelf(int y, int height) {
+            this.y      = y;
+            this.height = height;
+        }
+    }
+    
+    /**
+     * A texture where the images are packed.
+     */
+    private final class Page {
+        /** Texture of the page. */
+        final Texture2D texture;
+        /** Pixels of the page, the first row is the bottom one. */
+        final ByteBuffer data;
+        /** Shelves of the page, from top to bottom. */
+        final List<Shelf> shelves = new ArrayList<>();
+        /** Top of the free area below the shelves. */
+        int bottom;
+        /** GL identifier of the texture. */
+        int id;
+
+        /**
+         * Constructor of the class <code>Page</code>.
+         */
+        Page() {
+            data    = BufferUtils.createByteBuffer(pageSize * pageSize * PIXEL_SIZE);
+            texture = new Texture2D(new Image(Image.Format.RGBA8, pageSize, pageSize, data, ColorSpace.sRGB));
+            texture.setMagFilter(Texture.MagFilter.Bilinear);
+            texture.setMinFilter(Texture.MinFilter.BilinearNoMipMaps);
+        }
+        
+        /**
+         * Find room for an area on this page.
+         * 
+         * @param w width including the padding
+         * @param h height including the padding
+         * @param entry entry that receives the position
+         * @return {@code true} if there was room
+         */
+        boolean allocate(int w, int h, Entry entry) {
+            Shelf best = null;
+            for (Shelf shelf : shelves) {
+                if (shelf.height >= h && shelf.x + w <= pageSize 
+                        && (best == null || shelf.height < best.height)) {
+                    best = shelf;
+                }
+            }
+            if (best == null) {
+                if (bottom + h > pageSize || w > pageSize) {
+                    return false;
+                }
+                best = new Shelf(bottom, h);
+                shelves.add(best);
+                bottom += h;
+            }
+            
+            entry.page = this;
+            entry.x    = best.x + PADDING;
+            entry.y    = best.y + PADDING;
+            best.x    += w;
+            return true;
+        }
+        
+        /**
+         * Forget all the shelves and clear the pixels.
+         */
+        void reset() {
+            shelves.clear();
+            bottom = 0;
+            BufferUtils.zeroClear(data);
+        }
+    }
+    
+    /**
+     * An image packed in a page.
+     */
+    private static final class Entry {
+        /** Handle returned to the user. */
+        final NkImage image;
+        /** Width of the image. */
+        final int width;
+        /** Height of the image. */
+        final int height;
+        
+        /** Page where the image is. */
+        Page page;
+        /** Left column of the image in the page. */
+        int x;
+        /** Top row of the image in the page. */
+        int y;
+
+        /**
+         * Constructor of the class <code>Entry</code>.
+         * 
+         * @param image NkImage
+         * @param width int
+         * @param height int
+         */
+        Entry(NkImage image, int width, int height) {
+            this.image  = image;
+            this.width  = width;
+            this.height = height;
+        }
+    }
+    
+    /** Pages of the atlas. */
+    private final List<Page> pages = new ArrayList<>();
+    /** Images of the atlas by handle. */
+    private final Map<NkImage, Entry> entries = new IdentityHashMap<>();
+    
+    /** The renderer of the graphical interface components */
+    private final NkDisplay display;
+    /** Size of the pages. */
+    private final int pageSize;
+    /** Maximum size of the images accepted. */
+    private final int maxImageSize;
+    
+    /** Pixels occupied by removed images that have not been recovered. */
+    private long freeArea;
+
+    /**
+     * Constructor of the class <code>NkTextureAtlas</code>.
+     * 
+     * @param display NkDisplay
+     */
+    public NkTextureAtlas(NkDisplay display) {
+        this(display, DEFAULT_PAGE_SIZE, DEFAULT_MAX_IMAGE_SIZE);
+    }
+    
+    /**
+     * Constructor of the class <code>NkTextureAtlas</code>.
+     * 
+     * @param display NkDisplay
+     * @param pageSize size of the pages
+     * @param maxImageSize maximum size of the images accepted
+     */
+    public NkTextureAtlas(NkDisplay display, int pageSize, int maxImageSize) {
+        if (maxImageSize + 2 * PADDING > pageSize) {
+            throw new IllegalArgumentException("The images must fit in a page");
+        }
+        this.display      = display;
+        this.pageSize     = pageSize;
+        this.maxImageSize = maxImageSize;
+    }
+    
+    /**
+     * Add the image of a texture to the atlas.
+     * 
+     * @param texture Texture
+     * @return NkImage
+     */
+    public NkImage add(Texture texture) {
+        return add(texture.getImage());
+    }
+    
+    /**
+     * Add an image to the atlas; its pixels must be available in memory.
+     * 
+     * @param image Image
+     * @return the handle of the image within the atlas
+     * @throws IllegalArgumentException if the image is too large for the atlas
+     * or has no pixels
+     */
+    public NkImage add(Image image) {
+        int width  = image.getWidth();
+        int height = image.getHeight();
+        if (width > maxImageSize || height > maxImageSize) {
+            throw new IllegalArgumentException("Image " + width + "x" + height 
+                                                + " exceeds the maximum size of the atlas " + maxImageSize);
+        }
+        if (image.getData(0) == null) {
+            throw new IllegalArgumentException("The image has no pixels in memory");
+        }
+        
+        Entry entry = new Entry(NkImage.calloc(), width, height);
+        allocate(entry);
+        copy(image, entry);
+        update(entry);
+        uploadRegion(entry.page.texture, entry.x, entry.y, entry.width, entry.height);
+        
+        entries.put(entry.image, entry);
+        return entry.image;
+    }
+    
+    /**
+     * Remove an image from the atlas and free its handle; its space is
+     * recovered by the next defragmentation.
+     * 
+     * @param image handle returned by {@link #add(com.jme3.texture.Image)}
+     * @return {@code true} if the image belonged to the atlas
+     */
+    public boolean remove(NkImage image) {
+        Entry entry = entries.remove(image);
+        if (entry == null) {
+            return false;
+        }
+        
+        clear(entry.page.data, entry.x, entry.y, entry.width, entry.height);
+        uploadRegion(entry.page.texture, entry.x, entry.y, entry.width, entry.height);
+        freeArea += (long) (entry.width + 2 * PADDING) * (entry.height + 2 * PADDING);
+        
+        entry.image.free();
+        return true;
+    }
+    
+    /**
+     * Pack again all the images, from the tallest to the shortest, recovering
+     * the space of the removed images; the pages that become empty are
+     * released.
+     * <p>
+     * The new order may need more room than the old one: the images that do
+     * not fit in the existing pages go to new ones.
+     * </p>
+     */
+    public void defragment() {
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort((a, b) -> Integer.compare(b.height, a.height));
+        
+        // keep a copy of the pixels while the pages are cleared
+        List<ByteBuffer> pixels = new ArrayList<>(sorted.size());
+        for (Entry entry : sorted) {
+            pixels.add(read(entry));
+        }
+        for (Page page : pages) {
+            page.reset();
+        }
+        
+        for (int i = 0; i < sorted.size(); i++) {
+            Entry entry = sorted.get(i);
+            if (!allocateIn(entry)) {
+                newPage().allocate(entry.width + 2 * PADDING, entry.height + 2 * PADDING, entry);
+            }
+            write(pixels.get(i), entry);
+            BufferUtils.destroyDirectBuffer(pixels.get(i));
+            update(entry);
+        }
+        
+        // release the empty pages, the others are uploaded whole
+        for (int i = pages.size() - 1; i >= 0; i--) {
+            Page page = pages.get(i);
+            if (page.shelves.isEmpty()) {
+                release(page);
+                pages.remove(i);
+            } else {
+                page.texture.getImage().setUpdateNeeded();
+            }
+        }
+        freeArea = 0;
+    }
+    
+    /**
+     * Release all the pages and the handles of the images.
+     */
+    public void dispose() {
+        for (Entry entry : entries.values()) {
+            entry.image.free();
+        }
+        entries.clear();
+        for (Page page : pages) {
+            release(page);
+        }
+        pages.clear();
+        freeArea = 0;
+    }
+    
+    /**
+     * Find room for an image, defragmenting or creating a page if needed.
+     * 
+     * @param entry Entry
+     */
+    private void allocate(Entry entry) {
+        if (allocateIn(entry)) {
+            return;
+        }
+        
+        int w = entry.width + 2 * PADDING;
+        int h = entry.height + 2 * PADDING;
+        if (freeArea >= (long) w * h) {
+            defragment();
+            if (allocateIn(entry)) {
+                return;
+            }
+        }
+        newPage().allocate(w, h, entry);
+    }
+    
+    /**
+     * Find room for an image in the existing pages.
+     * 
+     * @param entry Entry
+     * @return {@code true} if one of the pages had room
+     */
+    private boolean allocateIn(Entry entry) {
+        int w = entry.width + 2 * PADDING;
+        int h = entry.height + 2 * PADDING;
+        for (Page page : pages) {
+            if (page.allocate(w, h, entry)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Create an empty page and add it to the atlas.
+     * 
+     * @return Page
+     */
+    private Page newPage() {
+        Page page = new Page();
+        page.id = registerTexture(page.texture);
+        pages.add(page);
+        return page;
+    }
+    
+    /**
+     * Release the texture of a page.
+     * 
+     * @param page Page
+     */
+    private void release(Page page) {
+        deleteTexture(page.texture);
+    }
+    
+    /**
+     * Register the texture of a new page in the display.
+     * 
+     * @param texture Texture2D
+     * @return the identifier of the texture for Nuklear
+     */
+    int registerTexture(Texture2D texture) {
+        NkTextureHandler.builder()
+                        .display(display)
+                        .handle(texture)
+                        .build();
+        return display.getTextureId(texture);
+    }
+    
+    /**
+     * Upload a region of a page to its texture; if the texture has not been
+     * uploaded yet, or is already waiting for a full upload, it is uploaded 
+     * whole the next time it is used. Called while a pipelined display builds
+     * its frame, the region is uploaded by the render thread.
+     * 
+     * @param texture Texture2D
+     * @param x left column
+     * @param y top row
+     * @param width int
+     * @param height int
+     */
+    void uploadRegion(Texture2D texture, int x, int y, int width, int height) {
+        display.runOnRenderThread(() -> {
+            Image image = texture.getImage();
+            if (image.getId() == NativeObject.INVALID_ID || image.isUpdateNeeded()) {
+                image.setUpdateNeeded();
+                return;
+            }
+            // the rows of the texture start at the bottom of the page
+            int row = pageSize - y - height;
+            display.getRenderManager()
+                   .getRenderer()
+                   .modifyTexture(texture, image, x, row, x, row, width, height);
+        });
+    }
+    
+    /**
+     * Remove the texture of a page from the display and the GPU, and free its
+     * pixels; the last two on the render thread.
+     * 
+     * @param texture Texture2D
+     */
+    void deleteTexture(Texture2D texture) {
+        display.removeTexture(texture);
+        display.runOnRenderThread(() -> {
+            Image image = texture.getImage();
+            display.getRenderManager()
+                   .getRenderer()
+                   .deleteImage(image);
+            BufferUtils.destroyDirectBuffer(image.getData(0));
+        });
+    }
+    
+    /**
+     * Update the handle of an image with its page and region.
+     * 
+     * @param entry Entry
+     */
+    private void update(Entry entry) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            NkRect region = NkRect.malloc(stack)
+                                .set(entry.x, entry.y, entry.width, entry.height);
+            nk_subimage_id(entry.page.id, (short) pageSize, (short) pageSize, region, entry.image);
+        }
+    }
+    
+    /**
+     * Returns the offset in bytes of a pixel of a page, given its position
+     * from the top of the page.
+     * 
+     * @param x column
+     * @param y row from the top
+     * @return int
+     */
+    private int offset(int x, int y) {
+        return ((pageSize - 1 - y) * pageSize + x) * PIXEL_SIZE;
+    }
+    
+    /**
+     * Copy the pixels of an image into its place in the page.
+     * 
+     * @param image Image
+     * @param entry Entry
+     */
+    private void copy(Image image, Entry entry) {
+        ByteBuffer data = entry.page.data;
+        if (image.getFormat() == Image.Format.RGBA8) {
+            ByteBuffer src = image.getData(0);
+            int rowSize = entry.width * PIXEL_SIZE;
+            for (int row = 0; row < entry.height; row++) {
+                // the first row of the image is its bottom one, as in the page
+                data.put(offset(entry.x, entry.y + entry.height - 1 - row), src, row * rowSize, rowSize);
+            }
+            return;
+        }
+        
+        ImageRaster raster = ImageRaster.create(image);
+        ColorRGBA color = new ColorRGBA();
+        for (int row = 0; row < entry.height; row++) {
+            int pos = offset(entry.x, entry.y + entry.height - 1 - row);
+            for (int col = 0; col < entry.width; col++) {
+                raster.getPixel(col, row, color);
+                data.put(pos++, (byte) (color.r * 255f + 0.5f))
+                    .put(pos++, (byte) (color.g * 255f + 0.5f))
+                    .put(pos++, (byte) (color.b * 255f + 0.5f))
+                    .put(pos++, (byte) (color.a * 255f + 0.5f));
+            }
+        }
+    }
+    
+    /**
+     * Returns a copy of the pixels of an image packed in a page.
+     * 
+     * @param entry Entry
+     * @return ByteBuffer
+     */
+    private ByteBuffer read(Entry entry) {
+        int rowSize = entry.width * PIXEL_SIZE;
+        ByteBuffer pixels = BufferUtils.createByteBuffer(rowSize * entry.height);
+        for (int row = 0; row < entry.height; row++) {
+            pixels.put(row * rowSize, entry.page.data, offset(entry.x, entry.y + row), rowSize);
+        }
+        return pixels;
+    }
+    
+    /**
+     * Write the pixels read with {@link #read(Entry)} into the page of an image.
+     * 
+     * @param pixels ByteBuffer
+     * @param entry Entry
+     */
+    private void write(ByteBuffer pixels, Entry entry) {
+        int rowSize = entry.width * PIXEL_SIZE;
+        for (int row = 0; row < entry.height; row++) {
+            entry.page.data.put(offset(entry.x, entry.y + row), pixels, row * rowSize, rowSize);
+        }
+    }
+    
+    /**
+     * Clear the pixels of an area of a page.
+     * 
+     * @param data pixels of the page
+     * @param x left column
+     * @param y top row
+     * @param width int
+     * @param height int
+     */
+    private void clear(ByteBuffer data, int x, int y, int width, int height) {
+        for (int row = 0; row < height; row++) {
+            int pos = offset(x, y + row);
+            for (int i = 0; i < width * PIXEL_SIZE; i++) {
+                data.put(pos + i, (byte) 0);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of pages.
+     * @return int
+     */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Returns the number of images.
+     * @return int
+     */
+    public int getImageCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the value of the attribute: pageSize
+     * @return int
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Returns the value of the attribute: maxImageSize
+     * @return int
+     */
+    public int getMaxImageSize() {
+        return maxImageSize;
+    }
+}
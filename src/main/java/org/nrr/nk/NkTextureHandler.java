@@ -30,13 +30,12 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package org.nrr.nk;
 
-import com.jme3.material.Material;
-import com.jme3.scene.Geometry;
-import com.jme3.scene.shape.Quad;
 import com.jme3.texture.Image;
 import com.jme3.texture.Texture;
-import com.jme3.util.NativeObject;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.function.Consumer;
 
 import org.lwjgl.nuklear.NkHandle;
@@ -63,6 +62,68 @@ public interface NkTextureHandler<T extends Texture> extends Consumer<NkHandle>
         return new Builder<>();
     }
     
+    /**
+     * Register several textures at once, uploading those that have not been
+     * uploaded yet; each handler holds a handle of its texture in the registry
+     * until {@link #release(NkDisplay)} is called.
+     * 
+     * @param <E> type of texture
+     * @param display NkDisplay
+     * @param textures the textures
+     * @return the handlers, in the same order as the textures
+     * @throws IllegalStateException if a texture cannot be uploaded; the
+     * handles registered for the previous textures are released
+     */
+    public static <E extends Texture> List<NkTextureHandler<E>> register(NkDisplay display, Collection<E> textures) {
+        if (display == null) {
+            throw new NullPointerException("The controller cannot be started without NkDisplay");
+        }
+        
+        List<NkTextureHandler<E>> handlers = new ArrayList<>(textures.size());
+        for (E texture : textures) {
+            if (!display.uploadTexture(texture)) {
+                for (NkTextureHandler<E> handler : handlers) {
+                    handler.release(display);
+                }
+                throw uploadFailed(texture);
+            }
+            handlers.add(of(texture, display.getTextureId(texture)));
+        }
+        return handlers;
+    }
+    
+    /**
+     * Returns the error of a texture that the renderer could not upload.
+     * 
+     * @param texture Texture
+     * @return IllegalStateException
+     */
+    private static IllegalStateException uploadFailed(Texture texture) {
+        return new IllegalStateException("The texture could not be uploaded: " + texture.getName());
+    }
+    
+    /**
+     * Returns a handler whose handles use the identifier given by the texture
+     * registry, which does not change if the texture is uploaded again.
+     * 
+     * @param <E> type of texture
+     * @param texture the texture
+     * @param id identifier of the handles
+     * @return NkTextureHandler
+     */
+    private static <E extends Texture> NkTextureHandler<E> of(E texture, int id) {
+        return new NkTextureHandler<E>() {
+            @Override
+            public E handle() {
+                return texture;
+            }
+            @Override
+            public void accept(NkHandle it) {
+                it.id(id);
+            }
+        };
+    }
+    
     /*(non-Javadoc)
      */
     @Override
@@ -86,6 +147,16 @@ public interface NkTextureHandler<T extends Texture> extends Consumer<NkHandle>
      */
     public T handle();
     
+    /**
+     * Release the handle of the texture registered when the handler was
+     * built; each handler must be released once, when it is no longer drawn.
+     * 
+     * @param display display the handler was built with
+     */
+    public default void release(NkDisplay display) {
+        display.removeTexture(handle());
+    }
+    
     /**
      * Class responsible for managing the builder of the {@code NkTextureHandler}
      * interface.
@@ -125,47 +196,49 @@ public interface NkTextureHandler<T extends Texture> extends Consumer<NkHandle>
         }
         
         /**
-         * Check if the texture is preloaded.
+         * Check if the texture has an image.
          * 
          * @return boolean
          */
         private boolean check() {
-            if (texture == null) {
-                return false;
-            }
-            Image image = texture.getImage();
-            if (image == null) {
-                return false;
-            }
-            return image.getId() == NativeObject.INVALID_ID;
+            return texture != null && texture.getImage() != null;
         }
         
         /**
-         * Preload the texture using a temporary geometry.
+         * Upload the texture through the renderer, if it is not uploaded yet,
+         * and register a handle of it.
+         * 
+         * @throws IllegalStateException if the renderer cannot upload it
          */
         private void init() {
-            Geometry drawable = new Geometry("nk_drawable", new Quad(1, 1));
-            Material material = new Material(display.getAssetManager(), "Common/MatDefs/Misc/Unshaded.j3md");
-            material.setTexture("ColorMap", texture);
-            drawable.setMaterial(material);
-            display.getRenderManager().preloadScene(drawable);
-            display.addTexture(texture);
+            if (!display.uploadTexture(texture)) {
+                throw uploadFailed(texture);
+            }
         }
         
         /**
          * Build the {@code Consumer<NkHandle>} controller that {@code Nuklear}
          * will use.
+         * <p>
+         * Each build registers a handle of the texture in the registry of the
+         * hub, which is released by {@link NkTextureHandler#release(NkDisplay)};
+         * the handle of a font is released by the hub when the last display 
+         * stops using the font.
+         * </p>
          * 
          * @return NkTextureHandler
+         * @throws IllegalStateException if the renderer cannot upload the
+         * texture
          */
         public NkTextureHandler<E> build() {
-            if (check()) {
-                init();
-            }            
             if (display == null) {
                 throw new NullPointerException("The controller cannot be started without NkDisplay");
             }
-            return () -> texture;
+            if (!check()) {
+                return () -> texture;
+            }
+            init();
+            return of(texture, display.getTextureId(texture));
         }
     }
 }
@@ -0,0 +1,495 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+import com.jme3.asset.TextureKey;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.texture.Texture2D;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.util.BufferUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.lwjgl.nuklear.NkImage;
+import org.lwjgl.system.MemoryStack;
+
+import static org.lwjgl.nuklear.Nuklear.*;
+import static org.lwjgl.stb.STBImage.*;
+
+/**
+ * Loads textures in the background for the images of the user interface.
+ * <p>
+ * The images are decoded by a pool of threads and uploaded by the render
+ * thread before the user interface is drawn, at most a number of bytes per
+ * frame (a texture larger than the budget is uploaded alone in its frame).
+ * Each image loaded returns at once a handle that shows a placeholder
+ * texture; the handle is updated in place when its texture is ready. If its
+ * texture cannot be decoded or uploaded, the handle keeps showing the 
+ * placeholder and {@link #getError(NkImage)} returns the cause.
+ * </p>
+ * <p>
+ * The images can be loaded through the asset manager or directly from files,
+ * which are memory mapped and decoded with stb_image; the pixels decoded are
+ * copied into a buffer of the image, so that they are managed as those of any
+ * other image, and freed by stb_image at once.
+ * </p>
+ * <pre><code>
+ *   NkTextureLoader loader = new NkTextureLoader(display);
+ *   NkImage icon = loader.load("Textures/icon.png");
+ *   NkImage item = loader.load(Paths.get("icons/sword.png"));
+ *   ...
+ *   nk_image(ctx, icon);
+ * </code></pre>
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class NkTextureLoader {
+    
+    /** Default number of bytes uploaded per frame. */
+    public static final int DEFAULT_UPLOAD_BUDGET = 4 * 1024 * 1024;
+    
+    /** Class logger. */
+    private static final Logger LOGGER = Logger.getLogger(NkTextureLoader.class.getName());
+    
+    /**
+     * State of an image being loaded.
+     */
+    private static final class Entry {
+        /** Handle returned to the user. */
+        final NkImage image;
+        /** Name of the asset or the file. */
+        final String name;
+        /** Texture decoded, {@code null} until it is ready. */
+        volatile Texture texture;
+        /** Error while decoding or uploading the texture. */
+        volatile Throwable error;
+        /** Whether the texture has been uploaded. */
+        volatile boolean ready;
+        /** Whether the image has been released. */
+        boolean released;
+        /** Whether the texture was decoded by the loader, which deletes it. */
+        boolean owned;
+
+        /**
+         * Constructor of the class <code>Entry</code>.
+         * 
+         * @param image NkImage
+         * @param name String
+         */
+        Entry(NkImage image, String name) {
+            this.image = image;
+            this.name  = name;
+        }
+    }
+    
+    /** Images loaded by their handle. */
+    private final Map<NkImage, Entry> entries = new ConcurrentHashMap<>();
+    /** Images decoded, waiting to be uploaded. */
+    private final Queue<Entry> decoded = new ConcurrentLinkedQueue<>();
+    /** Images created whose handle does not show the placeholder yet. */
+    private final Queue<Entry> created = new ConcurrentLinkedQueue<>();
+    
+    /** The renderer of the graphical interface components */
+    private final NkDisplay display;
+    /** Threads that decode the images. */
+    private final ExecutorService executor;
+    /** Flag indicating whether the threads belong to the loader. */
+    private final boolean ownExecutor;
+    
+    /** Maximum number of bytes uploaded per frame. */
+    private int uploadBudget;
+    /** Texture shown until the images are ready; the null texture by default. */
+    private Texture placeholder;
+    /** Identifier of the placeholder texture, {@code 0} until it is uploaded. */
+    private volatile int placeholderId;
+    /** Number of bytes uploaded in the last frame. */
+    private long uploaded;
+
+    /**
+     * Constructor of the class <code>NkTextureLoader</code>.
+     * 
+     * @param display NkDisplay
+     */
+    public NkTextureLoader(NkDisplay display) {
+        this(display, Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), r -> {
+            Thread thread = new Thread(r, "nk-texture-loader");
+            thread.setDaemon(true);
+            return thread;
+        }), DEFAULT_UPLOAD_BUDGET, true);
+    }
+    
+    /**
+     * Constructor of the class <code>NkTextureLoader</code>.
+     * 
+     * @param display NkDisplay
+     * @param executor threads that decode the images, not shut down by the loader
+     * @param uploadBudget maximum number of bytes uploaded per frame
+     */
+    public NkTextureLoader(NkDisplay display, ExecutorService executor, int uploadBudget) {
+        this(display, executor, uploadBudget, false);
+    }
+    
+    /**
+     * Constructor of the class <code>NkTextureLoader</code>.
+     * 
+     * @param display NkDisplay
+     * @param executor ExecutorService
+     * @param uploadBudget int
+     * @param ownExecutor boolean
+     */
+    private NkTextureLoader(NkDisplay display, ExecutorService executor, int uploadBudget, boolean ownExecutor) {
+        this.display      = display;
+        this.executor     = executor;
+        this.uploadBudget = uploadBudget;
+        this.ownExecutor  = ownExecutor;
+        display.addTextureLoader(this);
+    }
+    
+    /**
+     * Load an image in the background.
+     * 
+     * @param name name of the texture asset
+     * @return the handle of the image, showing the placeholder until it is ready
+     */
+    public NkImage load(String name) {
+        return load(new TextureKey(name, true));
+    }
+    
+    /**
+     * Load an image in the background.
+     * 
+     * @param key key of the texture asset
+     * @return the handle of the image, showing the placeholder until it is ready
+     */
+    public NkImage load(TextureKey key) {
+        Entry entry = create(key.getName());
+        executor.execute(() -> {
+            try {
+                entry.texture = display.getAssetManager().loadTexture(key);
+            } catch (RuntimeException e) {
+                fail(entry, e);
+                return;
+            }
+            decoded.add(entry);
+        });
+        return entry.image;
+    }
+    
+    /**
+     * Load an image file in the background, decoding it with stb_image.
+     * 
+     * @param file path of the image (PNG, JPEG, BMP, TGA, GIF, ...)
+     * @return the handle of the image, showing the placeholder until it is ready
+     */
+    public NkImage load(Path file) {
+        Entry entry = create(file.toString());
+        executor.execute(() -> {
+            Texture texture;
+            try {
+                texture = decode(file);
+            } catch (IOException | RuntimeException e) {
+                fail(entry, e);
+                return;
+            }
+            synchronized (entry) {
+                if (entry.released) {
+                    return;
+                }
+                entry.texture = texture;
+                entry.owned   = true;
+            }
+            decoded.add(entry);
+        });
+        return entry.image;
+    }
+    
+    /**
+     * Mark an image as failed; its handle keeps showing the placeholder until
+     * it is released.
+     * 
+     * @param entry Entry
+     * @param error cause of the failure
+     */
+    private static void fail(Entry entry, Throwable error) {
+        LOGGER.log(Level.WARNING, "Cannot load the image " + entry.name, error);
+        entry.error = error;
+    }
+    
+    /**
+     * Create the state of an image being loaded.
+     * 
+     * @param name name of the asset or the file
+     * @return Entry
+     */
+    private Entry create(String name) {
+        Entry entry = new Entry(NkImage.calloc(), name);
+        int id = placeholderId;
+        if (id != 0) {
+            nk_image_id(id, entry.image);
+        } else {
+            created.add(entry);
+        }
+        entries.put(entry.image, entry);
+        return entry;
+    }
+    
+    /**
+     * Decode an image file mapped in memory into a texture.
+     * 
+     * @param file Path
+     * @return Texture
+     * @throws IOException if the file cannot be read or decoded
+     */
+    private static Texture decode(Path file) throws IOException {
+        ByteBuffer copy;
+        int width, height;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                MemoryStack stack = MemoryStack.stackPush()) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            
+            IntBuffer w = stack.mallocInt(1);
+            IntBuffer h = stack.mallocInt(1);
+            IntBuffer components = stack.mallocInt(1);
+            
+            // the rows of the images start at the bottom
+            stbi_set_flip_vertically_on_load_thread(true);
+            ByteBuffer pixels = stbi_load_from_memory(data, w, h, components, 4);
+            if (pixels == null) {
+                throw new IOException("Cannot decode " + file + ": " + stbi_failure_reason());
+            }
+            
+            try {
+                // the image may free its buffer, which must not belong to stb_image
+                copy = BufferUtils.createByteBuffer(pixels.remaining());
+                copy.put(pixels)
+                    .flip();
+            } finally {
+                stbi_image_free(pixels);
+            }
+            width  = w.get(0);
+            height = h.get(0);
+        }
+        
+        Texture2D texture = new Texture2D(new Image(Image.Format.RGBA8, width, height, copy, ColorSpace.sRGB));
+        texture.setMagFilter(Texture.MagFilter.Bilinear);
+        texture.setMinFilter(Texture.MinFilter.BilinearNoMipMaps);
+        return texture;
+    }
+    
+    /**
+     * Upload the textures decoded within the budget of the frame; called by
+     * the display on the render thread before drawing.
+     */
+    void update() {
+        uploaded = 0;
+        if (placeholderId == 0) {
+            if (placeholder == null) {
+                placeholder = display.getResourceHub().getNullTexture(display.getRenderManager());
+            }
+            if (!display.uploadTexture(placeholder)) {
+                return;
+            }
+            placeholderId = display.getTextureId(placeholder);
+        }
+        for (Entry entry = created.poll(); entry != null; entry = created.poll()) {
+            if (!entry.ready && entries.containsKey(entry.image)) {
+                nk_image_id(placeholderId, entry.image);
+            }
+        }
+        
+        for (Entry entry = decoded.peek(); entry != null; entry = decoded.peek()) {
+            long size = sizeOf(entry.texture.getImage());
+            if (uploaded > 0 && uploaded + size > uploadBudget) {
+                break;
+            }
+            decoded.poll();
+            synchronized (entry) {
+                if (entry.released) {
+                    continue;
+                }
+            }
+            if (display.uploadTexture(entry.texture)) {
+                nk_image_id(display.getTextureId(entry.texture), entry.image);
+                entry.ready = true;
+            } else {
+                fail(entry, new IllegalStateException("The renderer could not upload the texture"));
+            }
+            uploaded += size;
+        }
+    }
+    
+    /**
+     * Returns the number of bytes of the data of an image.
+     * 
+     * @param image Image
+     * @return long
+     */
+    private static long sizeOf(Image image) {
+        long size = 0;
+        for (ByteBuffer data : image.getData()) {
+            if (data != null) {
+                size += data.limit();
+            }
+        }
+        return size;
+    }
+    
+    /**
+     * Returns {@code true} if the texture of an image is ready.
+     * 
+     * @param image handle returned by {@link #load(java.lang.String)}
+     * @return boolean
+     */
+    public boolean isReady(NkImage image) {
+        Entry entry = entries.get(image);
+        return entry != null && entry.ready;
+    }
+    
+    /**
+     * Returns the error while loading an image, or {@code null} if there was none.
+     * 
+     * @param image handle returned by {@link #load(java.lang.String)}
+     * @return Throwable
+     */
+    public Throwable getError(NkImage image) {
+        Entry entry = entries.get(image);
+        return entry == null ? null : entry.error;
+    }
+    
+    /**
+     * Forget an image and free its handle; the textures of the assets stay in
+     * the cache of the asset manager, while those of the files are deleted
+     * (by the render thread, if called from the handlers of a pipelined 
+     * display).
+     * 
+     * @param image handle returned by {@link #load(java.lang.String)}
+     */
+    public void release(NkImage image) {
+        Entry entry = entries.remove(image);
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            entry.released = true;
+            if (entry.ready) {
+                display.removeTexture(entry.texture);
+                if (entry.owned) {
+                    Image decoded = entry.texture.getImage();
+                    display.runOnRenderThread(() -> display.getRenderManager()
+                                                           .getRenderer()
+                                                           .deleteImage(decoded));
+                }
+            }
+        }
+        entry.image.free();
+    }
+    
+    /**
+     * Release all the images and stop the threads if they belong to the loader.
+     */
+    public void dispose() {
+        display.removeTextureLoader(this);
+        if (ownExecutor) {
+            executor.shutdownNow();
+        }
+        for (NkImage image : entries.keySet()) {
+            release(image);
+        }
+        decoded.clear();
+        created.clear();
+    }
+
+    /**
+     * Returns the number of images that are not ready yet.
+     * @return int
+     */
+    public int getPending() {
+        int pending = 0;
+        for (Entry entry : entries.values()) {
+            if (!entry.ready && entry.error == null) {
+                pending++;
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Returns the number of bytes uploaded in the last frame.
+     * @return long
+     */
+    public long getUploaded() {
+        return uploaded;
+    }
+    
+    /**
+     * Sets the maximum number of bytes uploaded per frame.
+     * 
+     * @param uploadBudget int
+     */
+    public void setUploadBudget(int uploadBudget) {
+        this.uploadBudget = uploadBudget;
+    }
+
+    /**
+     * Returns the value of the attribute: uploadBudget
+     * @return int
+     */
+    public int getUploadBudget() {
+        return uploadBudget;
+    }
+    
+    /**
+     * Sets the texture shown until the images are ready; it only applies to
+     * the images loaded before the first frame uploaded.
+     * 
+     * @param placeholder Texture
+     */
+    public void setPlaceholder(Texture placeholder) {
+        this.placeholder = placeholder;
+    }
+}
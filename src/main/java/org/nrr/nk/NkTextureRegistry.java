@@ -0,0 +1,424 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+import com.jme3.renderer.Renderer;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.util.IntMap;
+import com.jme3.util.NativeObject;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of the textures drawn by Nuklear, by the identifier of their
+ * handles ({@code nk_handle.id}).
+ * <p>
+ * The handles are counted: each registration of a texture must be paired with
+ * a release, and the texture is forgotten when its last handle is released.
+ * The registry also tracks the memory of the textures uploaded; when it exceeds
+ * the budget, the textures drawn least recently are deleted from the GPU (only
+ * those whose pixels are still in memory). A texture deleted keeps its handle
+ * and is uploaded again by the renderer the next time it is drawn.
+ * </p>
+ * <p>
+ * The displays of a hub share the registry, so the frames are counted by one
+ * of them, the first that starts a frame: it evicts the textures not drawn by
+ * any display during the previous frame before starting the next one.
+ * </p>
+ * <p>
+ * The identifier of a handle is the GL identifier of the texture when it is
+ * registered and does not change while it is registered. If the GL identifier
+ * of a new texture is already the handle of a texture deleted from the GPU,
+ * the new texture receives a negative identifier instead, so
+ * {@link #getId(com.jme3.texture.Texture)} must be used to build its handles.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class NkTextureRegistry {
+    
+    /**
+     * A texture registered.
+     */
+    private static final class Entry {
+        /** Texture registered. */
+        final Texture texture;
+        /** Identifier of the handles. */
+        final int id;
+        /** Number of handles. */
+        int references;
+        /** Bytes of the texture on the GPU. */
+        long bytes;
+        /** Whether the texture is counted as uploaded. */
+        boolean resident;
+        /** Frame the texture was last drawn. */
+        long lastDrawn;
+
+        /**
+         * Constructor of the class <code>Entry</code>.
+         * 
+         * @param texture Texture
+         * @param id int
+         */
+        Entry(Texture texture, int id) {
+            this.texture = texture;
+            this.id      = id;
+        }
+    }
+    
+    /** Textures by the identifier of their handles. */
+    private final IntMap<Entry> byId = new IntMap<>();
+    /** Textures by instance. */
+    private final Map<Texture, Entry> byTexture = new IdentityHashMap<>();
+    /** Textures that can be deleted from the GPU, reused by each eviction. */
+    private final List<Entry> candidates = new ArrayList<>();
+    
+    /** Maximum bytes of the textures uploaded before evicting. */
+    private long budget = Long.MAX_VALUE;
+    /** Bytes of the textures uploaded. */
+    private long residentBytes;
+    /** Number of textures deleted from the GPU. */
+    private int evictions;
+    /** Current frame. */
+    private long frame;
+    /** Display that counts the frames. */
+    private Object frameOwner;
+    /** Next identifier given on a collision. */
+    private int nextSyntheticId = -2;
+
+    /**
+     * Constructor of the class <code>NkTextureRegistry</code>.
+     */
+    NkTextureRegistry() {
+    }
+    
+    /**
+     * Register a new handle of a texture.
+     * 
+     * @param texture Texture
+     * @return the identifier of its handles
+     */
+    public synchronized int register(Texture texture) {
+        return register(texture.getImage().getId(), texture);
+    }
+    
+    /**
+     * Register a new handle of a texture, using an identifier if the texture is
+     * not registered yet.
+     * 
+     * @param id identifier desired, usually the GL identifier of the texture
+     * @param texture Texture
+     * @return the identifier of its handles
+     */
+    public synchronized int register(int id, Texture texture) {
+        Entry entry = byTexture.get(texture);
+        if (entry == null) {
+            if (id == NativeObject.INVALID_ID || byId.containsKey(id)) {
+                id = nextSyntheticId--;
+            }
+            entry = new Entry(texture, id);
+            byId.put(id, entry);
+            byTexture.put(texture, entry);
+        }
+        entry.references++;
+        entry.lastDrawn = frame;
+        if (!entry.resident && texture.getImage().getId() != NativeObject.INVALID_ID) {
+            upload(entry);
+        }
+        return entry.id;
+    }
+    
+    /**
+     * Register a texture with a single handle, unless it is already registered;
+     * the calls for a texture registered do not add handles.
+     * 
+     * @param id identifier desired, usually the GL identifier of the texture
+     * @param texture Texture
+     * @return {@code true} if the texture was not registered
+     */
+    public synchronized boolean registerOnce(int id, Texture texture) {
+        if (byTexture.containsKey(texture)) {
+            return false;
+        }
+        register(id, texture);
+        return true;
+    }
+    
+    /**
+     * Release a handle of a texture.
+     * 
+     * @param texture Texture
+     * @return {@code true} if it was the last handle and the texture was forgotten
+     */
+    public synchronized boolean release(Texture texture) {
+        return release(byTexture.get(texture));
+    }
+    
+    /**
+     * Release a handle of a texture.
+     * 
+     * @param id identifier of the handle
+     * @return {@code true} if it was the last handle and the texture was forgotten
+     */
+    public synchronized boolean release(int id) {
+        return release(byId.get(id));
+    }
+    
+    /**
+     * Release a handle of a texture.
+     * 
+     * @param entry Entry
+     * @return boolean
+     */
+    private boolean release(Entry entry) {
+        if (entry == null || --entry.references > 0) {
+            return false;
+        }
+        byId.remove(entry.id);
+        byTexture.remove(entry.texture);
+        if (entry.resident) {
+            residentBytes -= entry.bytes;
+        }
+        return true;
+    }
+    
+    /**
+     * Returns the texture of a handle.
+     * 
+     * @param id identifier of the handle
+     * @return Texture, {@code null} if it is not registered
+     */
+    public synchronized Texture get(int id) {
+        Entry entry = byId.get(id);
+        return entry == null ? null : entry.texture;
+    }
+    
+    /**
+     * Returns the texture of a handle that is about to be drawn, marking it as
+     * drawn in the current frame; if it was deleted from the GPU, the renderer
+     * uploads it again when binding it.
+     * 
+     * @param id identifier of the handle
+     * @return Texture, {@code null} if it is not registered
+     */
+    synchronized Texture draw(int id) {
+        Entry entry = byId.get(id);
+        if (entry == null) {
+            return null;
+        }
+        entry.lastDrawn = frame;
+        if (!entry.resident) {
+            upload(entry);
+        }
+        return entry.texture;
+    }
+    
+    /**
+     * Returns the identifier of the handles of a texture.
+     * 
+     * @param texture Texture
+     * @return the identifier, or the GL identifier if it is not registered
+     */
+    public synchronized int getId(Texture texture) {
+        Entry entry = byTexture.get(texture);
+        return entry == null ? texture.getImage().getId() : entry.id;
+    }
+    
+    /**
+     * Returns {@code true} if a texture is registered.
+     * 
+     * @param texture Texture
+     * @return boolean
+     */
+    public synchronized boolean contains(Texture texture) {
+        return byTexture.containsKey(texture);
+    }
+    
+    /**
+     * Returns {@code true} if a handle is registered.
+     * 
+     * @param id identifier of the handle
+     * @return boolean
+     */
+    public synchronized boolean contains(int id) {
+        return byId.containsKey(id);
+    }
+    
+    /**
+     * Start a new frame of the application if the display counts the frames,
+     * which is the first display that calls it; the calls of the other displays
+     * are ignored. The textures drawn least recently are deleted from the GPU
+     * first, if the memory is over the budget.
+     * 
+     * @param display display that starts its frame
+     * @param renderer Renderer
+     * @return {@code true} if a new frame was started
+     */
+    synchronized boolean beginFrame(Object display, Renderer renderer) {
+        if (frameOwner == null) {
+            frameOwner = display;
+        } else if (frameOwner != display) {
+            return false;
+        }
+        evict(renderer);
+        frame++;
+        return true;
+    }
+    
+    /**
+     * Stop counting the frames with a display, so that the next display that
+     * starts a frame counts them.
+     * 
+     * @param display display that no longer draws
+     */
+    synchronized void endFrames(Object display) {
+        if (frameOwner == display) {
+            frameOwner = null;
+        }
+    }
+    
+    /**
+     * Delete from the GPU the textures drawn least recently until the memory
+     * is within the budget; the textures drawn in the last frame and those
+     * whose pixels are not in memory are kept.
+     * 
+     * @param renderer Renderer
+     */
+    private void evict(Renderer renderer) {
+        if (residentBytes <= budget) {
+            return;
+        }
+        
+        candidates.clear();
+        for (Entry entry : byTexture.values()) {
+            Image image = entry.texture.getImage();
+            if (entry.resident && entry.lastDrawn < frame 
+                    && image.getData(0) != null && image.getId() != NativeObject.INVALID_ID) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort((a, b) -> Long.compare(a.lastDrawn, b.lastDrawn));
+        
+        for (int i = 0; i < candidates.size() && residentBytes > budget; i++) {
+            Entry entry = candidates.get(i);
+            renderer.deleteImage(entry.texture.getImage());
+            entry.resident = false;
+            residentBytes -= entry.bytes;
+            evictions++;
+        }
+        candidates.clear();
+    }
+    
+    /**
+     * Count a texture as uploaded.
+     * 
+     * @param entry Entry
+     */
+    private void upload(Entry entry) {
+        entry.bytes    = sizeOf(entry.texture);
+        entry.resident = true;
+        residentBytes += entry.bytes;
+    }
+    
+    /**
+     * Returns an estimate of the bytes of a texture on the GPU.
+     * 
+     * @param texture Texture
+     * @return long
+     */
+    private static long sizeOf(Texture texture) {
+        Image image = texture.getImage();
+        long bytes  = (long) image.getWidth() * image.getHeight() 
+                        * Math.max(image.getDepth(), 1) * image.getFormat().getBitsPerPixel() / 8;
+        if (image.hasMipmaps() || texture.getMinFilter().usesMipMapLevels()) {
+            bytes += bytes / 3;
+        }
+        return bytes;
+    }
+    
+    /**
+     * Forget all the textures.
+     */
+    synchronized void clear() {
+        byId.clear();
+        byTexture.clear();
+        residentBytes = 0;
+        frameOwner    = null;
+    }
+    
+    /**
+     * Sets the maximum bytes of the textures uploaded; the textures drawn least
+     * recently are deleted from the GPU when it is exceeded.
+     * 
+     * @param budget bytes, {@code Long.MAX_VALUE} to never evict
+     */
+    public synchronized void setBudget(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Returns the value of the attribute: budget
+     * @return long
+     */
+    public synchronized long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Returns the value of the attribute: residentBytes
+     * @return long
+     */
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    /**
+     * Returns the value of the attribute: evictions
+     * @return int
+     */
+    public synchronized int getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of textures registered.
+     * @return int
+     */
+    public synchronized int size() {
+        return byTexture.size();
+    }
+}
@@ -0,0 +1,587 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+import com.jme3.asset.AssetInfo;
+import com.jme3.asset.AssetKey;
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.AssetNotFoundException;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.texture.Texture2D;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.util.BufferUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import org.lwjgl.nuklear.NkUserFont;
+import org.lwjgl.nuklear.NkVec2;
+import org.lwjgl.stb.STBTTFontinfo;
+import org.lwjgl.stb.STBTTPackContext;
+import org.lwjgl.stb.STBTTPackedchar;
+import org.lwjgl.system.MemoryStack;
+
+import static org.lwjgl.stb.STBTruetype.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * A font handler that bakes a TrueType font at runtime with stb_truetype.
+ * <p>
+ * The glyphs of a range of codepoints are packed in a texture, with a block of
+ * white texels for the shapes; their metrics, advances and kerning pairs are
+ * kept in primitive tables, so the width and glyph callbacks of Nuklear read
+ * the text directly from native memory without creating objects.
+ * </p>
+ * <p>
+ * The table of kerning has an entry for each pair, so it is only kept for
+ * ranges of up to {@link #MAX_KERNING_TABLE} codepoints; the kerning of the
+ * larger ones (such as CJK) is looked up in the font for each pair.
+ * </p>
+ * <pre><code>
+ *   display.setDefaultStyleFont(NkTrueTypeFontHandler.builder()
+ *                                   .assetManager(assetManager)
+ *                                   .display(display)
+ *                                   .font("Interface/Nuklear/TTF/Roboto-Regular.ttf")
+ *                                   .size(16)
+ *                                   .build());
+ * </code></pre>
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class NkTrueTypeFontHandler implements NkBitmapFontHandler {
+    
+    /** Default first codepoint baked. */
+    public static final int DEFAULT_FIRST_CODEPOINT = 32;
+    /** Default number of codepoints baked (Basic Latin and Latin-1). */
+    public static final int DEFAULT_CODEPOINT_COUNT = 224;
+    /** Largest range of codepoints whose kerning pairs are kept in a table. */
+    public static final int MAX_KERNING_TABLE = 512;
+    
+    /** Rows reserved at the bottom of the texture for the white texels. */
+    private static final int WHITE_ROWS = 4;
+    /** Largest texture tried when the glyphs do not fit. */
+    private static final int MAX_ATLAS_SIZE = 4096;
+    
+    /**
+     * Handler builder.
+     * 
+     * @return Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    /** First codepoint baked. */
+    private final int first;
+    /** Number of codepoints baked. */
+    private final int count;
+    /** Index of the glyph drawn for the codepoints that were not baked. */
+    private final int fallback;
+    
+    /** Advance of each glyph. */
+    private final float[] advances;
+    /** 
+     * Kerning of each pair of glyphs, {@code null} if the font has none or the
+     * range is too large.
+     */
+    private final float[] kerning;
+    /** Glyph indices of the codepoints, {@code null} if the kerning is in the table. */
+    private final int[] glyphIndices;
+    /** Font whose kerning is looked up, {@code null} if it is in the table. */
+    private final STBTTFontinfo kerningInfo;
+    /** Data of the font, kept alive while its kerning is looked up. */
+    private final ByteBuffer ttf;
+    /** Scale of the font units. */
+    private final float scale;
+    /** Quad of each glyph relative to the top of the line (x0, y0, x1, y1). */
+    private final float[] quads;
+    /** Texture coordinates of each glyph (u0, v0, u1, v1). */
+    private final float[] uvs;
+    
+    /** Texture coordinates of the white texel. */
+    private final NkVec2 whiteTexel;
+    /** The new font. */
+    private final NkUserFont userFont;
+    /** Texture of the glyphs. */
+    private final Texture2D texture;
+
+    /**
+     * Constructor of the class <code>NkTrueTypeFontHandler</code>.
+     * 
+     * @param builder Builder
+     */
+    private NkTrueTypeFontHandler(Builder builder) {
+        first    = builder.first;
+        count    = builder.count;
+        advances = new float[count];
+        quads    = new float[count * 4];
+        uvs      = new float[count * 4];
+        
+        STBTTFontinfo info = STBTTFontinfo.create();
+        if (!stbtt_InitFont(info, builder.ttf)) {
+            throw new IllegalArgumentException("The font data is not a valid TrueType font");
+        }
+        
+        scale = stbtt_ScaleForPixelHeight(info, builder.size);
+        float ascent;
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer a = stack.mallocInt(1);
+            IntBuffer d = stack.mallocInt(1);
+            IntBuffer g = stack.mallocInt(1);
+            stbtt_GetFontVMetrics(info, a, d, g);
+            ascent = a.get(0) * scale;
+        }
+        
+        texture  = bake(builder, ascent);
+        fallback = Math.max(index('?'), 0);
+        if (count <= MAX_KERNING_TABLE) {
+            kerning      = computeKerning(info);
+            glyphIndices = null;
+            kerningInfo  = null;
+            ttf          = null;
+        } else {
+            kerning      = null;
+            glyphIndices = glyphIndices(info);
+            kerningInfo  = info;
+            ttf          = builder.ttf;
+        }
+        
+        int size = texture.getImage().getWidth();
+        // center of the block written by createTexture
+        whiteTexel = NkVec2.create().set(2.5f / size, (size - 1.5f) / size);
+        
+        userFont = NkUserFont.create();
+        userFont.width((handle, h, text, len) -> width(text, len))
+                .height(builder.size)
+                .query((handle, font_height, glyph, codepoint, next_codepoint) -> {
+                    query(glyph, codepoint, next_codepoint);
+                })
+                .texture(
+                    NkTextureHandler.builder()
+                                    .display(builder.display)
+                                    .handle(texture)
+                                    .build()
+                );
+    }
+    
+    /**
+     * Pack the glyphs in a texture, doubling its size until they fit, and fill
+     * the tables of metrics.
+     * 
+     * @param builder Builder
+     * @param ascent ascent of the font in pixels
+     * @return Texture2D
+     */
+    private Texture2D bake(Builder builder, float ascent) {
+        int size = builder.atlasSize;
+        try (STBTTPackContext pc = STBTTPackContext.malloc();
+                STBTTPackedchar.Buffer chars = STBTTPackedchar.malloc(count)) {
+            while (true) {
+                ByteBuffer bitmap = memCalloc(size * size);
+                try {
+                    // the last rows are left free for the white texels
+                    if (!stbtt_PackBegin(pc, bitmap, size, size - WHITE_ROWS, size, 1, NULL)) {
+                        throw new IllegalStateException("Cannot initialize the font packer");
+                    }
+                    stbtt_PackSetOversampling(pc, builder.oversampling, builder.oversampling);
+                    boolean packed = stbtt_PackFontRange(pc, builder.ttf, 0, builder.size, first, chars);
+                    stbtt_PackEnd(pc);
+                    
+                    if (packed) {
+                        for (int i = 0; i < count; i++) {
+                            STBTTPackedchar c = chars.get(i);
+                            advances[i] = c.xadvance();
+                            
+                            quads[i * 4]     = c.xoff();
+                            quads[i * 4 + 1] = c.yoff() + ascent;
+                            quads[i * 4 + 2] = c.xoff2();
+                            quads[i * 4 + 3] = c.yoff2() + ascent;
+                            
+                            uvs[i * 4]     = (float) c.x0() / size;
+                            uvs[i * 4 + 1] = (float) c.y0() / size;
+                            uvs[i * 4 + 2] = (float) c.x1() / size;
+                            uvs[i * 4 + 3] = (float) c.y1() / size;
+                        }
+                        return createTexture(bitmap, size);
+                    }
+                } finally {
+                    memFree(bitmap);
+                }
+                
+                if (size >= MAX_ATLAS_SIZE) {
+                    throw new IllegalStateException("The glyphs do not fit in a texture of " + size + "x" + size);
+                }
+                size *= 2;
+            }
+        }
+    }
+    
+    /**
+     * Create the texture of the glyphs from the coverage baked, white with the
+     * coverage as alpha, and write the white texels.
+     * 
+     * @param bitmap coverage of the glyphs, the first row is the top one
+     * @param size size of the texture
+     * @return Texture2D
+     */
+    private static Texture2D createTexture(ByteBuffer bitmap, int size) {
+        // 3x3 block below the glyphs, separated from them by one row
+        for (int y = size - 3; y < size; y++) {
+            for (int x = 1; x < 4; x++) {
+                bitmap.put(y * size + x, (byte) 0xFF);
+            }
+        }
+        
+        ByteBuffer data = BufferUtils.createByteBuffer(size * size * 4);
+        for (int y = size - 1; y >= 0; y--) {
+            // the rows of the texture start at the bottom
+            for (int x = 0; x < size; x++) {
+                data.put((byte) 0xFF)
+                    .put((byte) 0xFF)
+                    .put((byte) 0xFF)
+                    .put(bitmap.get(y * size + x));
+            }
+        }
+        data.flip();
+        
+        Texture2D texture = new Texture2D(new Image(Image.Format.RGBA8, size, size, data, ColorSpace.Linear));
+        texture.setMagFilter(Texture.MagFilter.Bilinear);
+        texture.setMinFilter(Texture.MinFilter.BilinearNoMipMaps);
+        return texture;
+    }
+    
+    /**
+     * Returns the glyph index of each codepoint baked.
+     * 
+     * @param info STBTTFontinfo
+     * @return int[]
+     */
+    private int[] glyphIndices(STBTTFontinfo info) {
+        int[] glyphs = new int[count];
+        for (int i = 0; i < count; i++) {
+            glyphs[i] = stbtt_FindGlyphIndex(info, first + i);
+        }
+        return glyphs;
+    }
+    
+    /**
+     * Returns the kerning of each pair of glyphs baked (from the kern or GPOS
+     * tables), or {@code null} if the font has no kerning for them.
+     * 
+     * @param info STBTTFontinfo
+     * @return float[]
+     */
+    private float[] computeKerning(STBTTFontinfo info) {
+        int[] glyphs = glyphIndices(info);
+        float[] table = new float[count * count];
+        boolean any = false;
+        for (int a = 0; a < count; a++) {
+            for (int b = 0; b < count; b++) {
+                int kern = stbtt_GetGlyphKernAdvance(info, glyphs[a], glyphs[b]);
+                if (kern != 0) {
+                    table[a * count + b] = kern * scale;
+                    any = true;
+                }
+            }
+        }
+        return any ? table : null;
+    }
+    
+    /**
+     * Returns the index of a codepoint in the tables, or {@code -1} if it was
+     * not baked.
+     * 
+     * @param codepoint int
+     * @return int
+     */
+    private int index(int codepoint) {
+        int i = codepoint - first;
+        return i >= 0 && i < count ? i : -1;
+    }
+    
+    /**
+     * Returns the advance from a glyph to the next one, with its kerning.
+     * 
+     * @param glyph index of the glyph
+     * @param next index of the next glyph, {@code -1} if there is none
+     * @return float
+     */
+    private float advance(int glyph, int next) {
+        float advance = advances[glyph];
+        if (next >= 0) {
+            if (kerning != null) {
+                advance += kerning[glyph * count + next];
+            } else if (kerningInfo != null) {
+                advance += stbtt_GetGlyphKernAdvance(kerningInfo, glyphIndices[glyph], glyphIndices[next]) * scale;
+            }
+        }
+        return advance;
+    }
+    
+    /**
+     * Returns the width of a UTF-8 text read from native memory.
+     * 
+     * @param text address of the text
+     * @param len length in bytes
+     * @return float
+     */
+    private float width(long text, int len) {
+        float width = 0;
+        int previous = -1;
+        for (int i = 0; i < len;) {
+            int b = memGetByte(text + i) & 0xFF;
+            int codepoint, size;
+            if (b < 0x80) {
+                codepoint = b;
+                size = 1;
+            } else if ((b & 0xE0) == 0xC0) {
+                codepoint = b & 0x1F;
+                size = 2;
+            } else if ((b & 0xF0) == 0xE0) {
+                codepoint = b & 0x0F;
+                size = 3;
+            } else {
+                codepoint = b & 0x07;
+                size = 4;
+            }
+            for (int j = 1; j < size && i + j < len; j++) {
+                codepoint = (codepoint << 6) | (memGetByte(text + i + j) & 0x3F);
+            }
+            i += size;
+            
+            int glyph = index(codepoint);
+            if (glyph < 0) {
+                glyph = fallback;
+            }
+            if (previous >= 0) {
+                width += advance(previous, glyph);
+            }
+            previous = glyph;
+        }
+        if (previous >= 0) {
+            width += advances[previous];
+        }
+        return width;
+    }
+    
+    /**
+     * Fill the glyph of a codepoint.
+     * 
+     * @param ufg address of the NkUserFontGlyph
+     * @param codepoint int
+     * @param next codepoint that follows
+     */
+    private void query(long ufg, int codepoint, int next) {
+        int glyph = index(codepoint);
+        if (glyph < 0) {
+            glyph = fallback;
+        }
+        int q = glyph * 4;
+        
+        NkGlyphCache.put(ufg, 
+                         quads[q + 2] - quads[q], quads[q + 3] - quads[q + 1], 
+                         quads[q], quads[q + 1], 
+                         advance(glyph, next == 0 ? -1 : index(next)), 
+                         uvs[q], uvs[q + 1], uvs[q + 2], uvs[q + 3]);
+    }
+    
+    /*(non-Javadoc)
+     */
+    @Override
+    public NkUserFont userFont() {
+        return userFont;
+    }
+
+    /*(non-Javadoc)
+     */
+    @Override
+    public NkVec2 whiteTexel() {
+        return whiteTexel;
+    }
+
+    /**
+     * Returns the value of the attribute: texture
+     * @return Texture2D
+     */
+    public Texture2D getTexture() {
+        return texture;
+    }
+    
+    /**
+     * Class responsible for managing the builder of the
+     * {@code NkTrueTypeFontHandler} class.
+     */
+    public static class Builder {
+        
+        /** The renderer of the graphical interface components */
+        private NkDisplay display;
+        /** Asset manager. */
+        private AssetManager assetManager;
+        /** Data of the TrueType font. */
+        private ByteBuffer ttf;
+        
+        /** Height of the font in pixels. */
+        private float size = 14;
+        /** First codepoint baked. */
+        private int first = DEFAULT_FIRST_CODEPOINT;
+        /** Number of codepoints baked. */
+        private int count = DEFAULT_CODEPOINT_COUNT;
+        /** Initial size of the texture. */
+        private int atlasSize = 256;
+        /** Oversampling of the glyphs, sharper at small sizes. */
+        private int oversampling = 1;
+        
+        /** Constructor of the class <code>Builder</code>. */
+        private Builder() {}
+        
+        /**
+         * Sets the {@code NkDisplay} attribute.
+         *
+         * @param display NkDisplay
+         * @return Builder
+         */
+        public Builder display(NkDisplay display) {
+            this.display = display;
+            return this;
+        }
+
+        /**
+         * Sets the {@code AssetManager} attribute.
+         *
+         * @param assetManager AssetManager
+         * @return Builder
+         */
+        public Builder assetManager(AssetManager assetManager) {
+            this.assetManager = assetManager;
+            return this;
+        }
+        
+        /**
+         * Sets the data of the TrueType font; the buffer must be direct, and
+         * stay valid while the font is used if the range baked is larger than
+         * {@link NkTrueTypeFontHandler#MAX_KERNING_TABLE}.
+         *
+         * @param ttf ByteBuffer
+         * @return Builder
+         */
+        public Builder font(ByteBuffer ttf) {
+            this.ttf = ttf;
+            return this;
+        }
+        
+        /**
+         * Sets the TrueType font from an asset.
+         *
+         * @param pathname name of the asset
+         * @return Builder
+         */
+        public Builder font(String pathname) {
+            AssetInfo info = assetManager.locateAsset(new AssetKey<>(pathname));
+            if (info == null) {
+                throw new AssetNotFoundException(pathname);
+            }
+            try (InputStream in = info.openStream()) {
+                byte[] bytes = in.readAllBytes();
+                return font(BufferUtils.createByteBuffer(bytes.length).put(bytes).flip());
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot read the font " + pathname, e);
+            }
+        }
+
+        /**
+         * Sets the height of the font in pixels.
+         *
+         * @param size float
+         * @return Builder
+         */
+        public Builder size(float size) {
+            this.size = size;
+            return this;
+        }
+        
+        /**
+         * Sets the range of codepoints baked.
+         *
+         * @param first first codepoint
+         * @param count number of codepoints
+         * @return Builder
+         */
+        public Builder range(int first, int count) {
+            this.first = first;
+            this.count = count;
+            return this;
+        }
+
+        /**
+         * Sets the initial size of the texture, doubled while the glyphs do
+         * not fit.
+         *
+         * @param atlasSize int
+         * @return Builder
+         */
+        public Builder atlasSize(int atlasSize) {
+            this.atlasSize = atlasSize;
+            return this;
+        }
+
+        /**
+         * Sets the oversampling of the glyphs.
+         *
+         * @param oversampling int
+         * @return Builder
+         */
+        public Builder oversampling(int oversampling) {
+            this.oversampling = oversampling;
+            return this;
+        }
+        
+        /**
+         * Build the {@code NkTrueTypeFontHandler} controller that {@code Nuklear}
+         * will use.
+         * 
+         * @return NkTrueTypeFontHandler
+         */
+        public NkTrueTypeFontHandler build() {
+            if (display == null) {
+                throw new NullPointerException("The controller cannot be started without NkDisplay");
+            }
+            if (ttf == null) {
+                throw new NullPointerException("The font data cannot be null");
+            }
+            return new NkTrueTypeFontHandler(this);
+        }
+    }
+}
@@ -33,6 +33,11 @@ package org.nrr.nk.system;
 /**
  * Class responsible for managing the amount of memory that Nuklear will have
  * available.
+ * <p>
+ * With automatic resizing, the buffers are doubled when Nuklear reports them
+ * full and halved when their usage stays below a quarter of their size for a
+ * number of conversions; they never shrink below the configured size.
+ * </p>
  * 
  * @author wil
  * @version 1.0.0
@@ -40,6 +45,11 @@ package org.nrr.nk.system;
  */
 public final class BufferConfig {
     
+    /** Default number of conversions observed before shrinking the buffers. */
+    public static final int DEFAULT_SHRINK_DELAY = 600;
+    /** Smallest size to which an empty buffer grows. */
+    private static final int MIN_GROWTH = 4 * 1024;
+    
     /**
      * Returns an instance.
      * @return BufferConfig
@@ -53,6 +63,27 @@ public final class BufferConfig {
     /** Maximum number of elements. */
     private int maxElementBuffer;
     
+    /** Configured size of the vertex buffer. */
+    private int minVertexBuffer;
+    /** Configured size of the elements buffer. */
+    private int minElementBuffer;
+    
+    /** Highest usage of the vertex buffer. */
+    private int vertexHighWater;
+    /** Highest usage of the elements buffer. */
+    private int elementHighWater;
+    /** Highest usage of the vertex buffer in the current shrink period. */
+    private int vertexPeak;
+    /** Highest usage of the elements buffer in the current shrink period. */
+    private int elementPeak;
+    /** Conversions observed in the current shrink period. */
+    private int conversions;
+    
+    /** Flag indicating whether the buffers grow and shrink on their own. */
+    private boolean autoResize = true;
+    /** Number of conversions observed before shrinking the buffers. */
+    private int shrinkDelay = DEFAULT_SHRINK_DELAY;
+    
     /**
      * A flag that indicates if there is a buffer update.
      */
@@ -71,6 +102,7 @@ public final class BufferConfig {
             this.maxVertexBuffer = maxVertexBuffer;
             this.needsUpdate     = true;
         }
+        this.minVertexBuffer = maxVertexBuffer;
         return this;
     }
 
@@ -85,8 +117,105 @@ public final class BufferConfig {
             this.maxElementBuffer = maxElementBuffer;
             this.needsUpdate     = true;
         }
+        this.minElementBuffer = maxElementBuffer;
+        return this;
+    }
+    
+    /**
+     * Sets the {@code autoResize|boolean} attribute.
+     * 
+     * @param autoResize boolean
+     * @return BufferConfig
+     */
+    public BufferConfig autoResize(boolean autoResize) {
+        this.autoResize = autoResize;
         return this;
     }
+    
+    /**
+     * Sets the {@code shrinkDelay|int} attribute.
+     * 
+     * @param shrinkDelay number of conversions
+     * @return BufferConfig
+     */
+    public BufferConfig shrinkDelay(int shrinkDelay) {
+        if (shrinkDelay < 1) {
+            throw new IllegalArgumentException("The shrink delay must be positive");
+        }
+        this.shrinkDelay = shrinkDelay;
+        return this;
+    }
+    
+    /**
+     * Double the size of the buffers that Nuklear reported as full.
+     * 
+     * @param vertex {@code true} if the vertex buffer is full
+     * @param element {@code true} if the elements buffer is full
+     * @return {@code true} if a buffer grew and the conversion can be retried
+     */
+    public boolean grow(boolean vertex, boolean element) {
+        boolean grown = false;
+        if (vertex && maxVertexBuffer <= Integer.MAX_VALUE / 2) {
+            maxVertexBuffer = Math.max(maxVertexBuffer * 2, MIN_GROWTH);
+            grown = true;
+        }
+        if (element && maxElementBuffer <= Integer.MAX_VALUE / 2) {
+            maxElementBuffer = Math.max(maxElementBuffer * 2, MIN_GROWTH);
+            grown = true;
+        }
+        if (grown) {
+            needsUpdate = true;
+            conversions = 0;
+            vertexPeak  = 0;
+            elementPeak = 0;
+        }
+        return grown;
+    }
+    
+    /**
+     * Register the bytes used by a conversion; at the end of each shrink period
+     * the buffers that were mostly unused are halved.
+     * 
+     * @param vertexUsed bytes written to the vertex buffer
+     * @param elementUsed bytes written to the elements buffer
+     */
+    public void track(int vertexUsed, int elementUsed) {
+        vertexHighWater  = Math.max(vertexHighWater, vertexUsed);
+        elementHighWater = Math.max(elementHighWater, elementUsed);
+        vertexPeak       = Math.max(vertexPeak, vertexUsed);
+        elementPeak      = Math.max(elementPeak, elementUsed);
+        
+        if (!autoResize || ++conversions < shrinkDelay) {
+            return;
+        }
+        
+        int vertexSize  = shrink(maxVertexBuffer, vertexPeak, minVertexBuffer);
+        int elementSize = shrink(maxElementBuffer, elementPeak, minElementBuffer);
+        if (vertexSize != maxVertexBuffer || elementSize != maxElementBuffer) {
+            maxVertexBuffer  = vertexSize;
+            maxElementBuffer = elementSize;
+            needsUpdate      = true;
+        }
+        
+        conversions = 0;
+        vertexPeak  = 0;
+        elementPeak = 0;
+    }
+    
+    /**
+     * Returns the new size of a buffer at the end of a shrink period.
+     * 
+     * @param size current size
+     * @param peak highest usage in the period
+     * @param min configured size
+     * @return int
+     */
+    private static int shrink(int size, int peak, int min) {
+        if (peak < size / 4 && size / 2 >= min) {
+            return size / 2;
+        }
+        return size;
+    }
 
     /**
      * Returns the value of the attribute: maxVertexBuffer
@@ -104,6 +233,38 @@ public final class BufferConfig {
         return maxElementBuffer;
     }
 
+    /**
+     * Returns the value of the attribute: vertexHighWater
+     * @return int
+     */
+    public int getVertexHighWater() {
+        return vertexHighWater;
+    }
+
+    /**
+     * Returns the value of the attribute: elementHighWater
+     * @return int
+     */
+    public int getElementHighWater() {
+        return elementHighWater;
+    }
+
+    /**
+     * Returns the value of the attribute: autoResize
+     * @return boolean
+     */
+    public boolean isAutoResize() {
+        return autoResize;
+    }
+
+    /**
+     * Returns the value of the attribute: shrinkDelay
+     * @return int
+     */
+    public int getShrinkDelay() {
+        return shrinkDelay;
+    }
+
     /**
      * Indicates if there is a pending update.
      * @return boolean
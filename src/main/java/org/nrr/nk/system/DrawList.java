@@ -0,0 +1,285 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk.system;
+
+import java.util.Arrays;
+
+/**
+ * Class responsible for collecting the drawing commands of a Nuklear frame,
+ * merging consecutive commands that share the same texture and clipping
+ * rectangle into a single draw.
+ * <p>
+ * The elements of consecutive commands are contiguous within the element
+ * buffer, so merging two commands only extends the range of the first.
+ * Commands of different groups (windows drawn separately) are never merged.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class DrawList {
+    
+    /** Initial number of draws. */
+    private static final int INITIAL_CAPACITY = 64;
+    
+    /** Texture identifier of each draw. */
+    private int[] texture;
+    /** Clipping rectangle of each draw (x, y, w, h). */
+    private float[] clip;
+    /** First element of each draw. */
+    private int[] offset;
+    /** Number of elements of each draw. */
+    private int[] count;
+    /** Group of each draw. */
+    private int[] group;
+    
+    /** Number of draws. */
+    private int size;
+    /** Number of commands added. */
+    private int commands;
+    
+    /**
+     * {@code true} if compatible consecutive commands are merged.
+     */
+    private boolean merge = true;
+
+    /**
+     * Constructor of the class <code>DrawList</code>.
+     */
+    public DrawList() {
+        texture = new int[INITIAL_CAPACITY];
+        clip    = new float[INITIAL_CAPACITY * 4];
+        offset  = new int[INITIAL_CAPACITY];
+        count   = new int[INITIAL_CAPACITY];
+        group   = new int[INITIAL_CAPACITY];
+    }
+    
+    /**
+     * Sets the {@code merge|boolean} attribute.
+     * 
+     * @param merge boolean
+     * @return DrawList
+     */
+    public DrawList merge(boolean merge) {
+        this.merge = merge;
+        return this;
+    }
+    
+    /**
+     * Clean the list.
+     * 
+     * @return DrawList
+     */
+    public DrawList clear() {
+        size     = 0;
+        commands = 0;
+        return this;
+    }
+    
+    /**
+     * Add a drawing command to the list.
+     * 
+     * @param textureId texture identifier
+     * @param x clipping x
+     * @param y clipping y
+     * @param w clipping width
+     * @param h clipping height
+     * @param first first element of the command
+     * @param elements number of elements of the command
+     * @return {@code true} if the command was merged with the previous one
+     */
+    public boolean add(int textureId, float x, float y, float w, float h, int first, int elements) {
+        return add(textureId, x, y, w, h, first, elements, 0);
+    }
+    
+    /**
+     * Add a drawing command of a group to the list.
+     * 
+     * @param textureId texture identifier
+     * @param x clipping x
+     * @param y clipping y
+     * @param w clipping width
+     * @param h clipping height
+     * @param first first element of the command
+     * @param elements number of elements of the command
+     * @param groupId group of the command
+     * @return {@code true} if the command was merged with the previous one
+     */
+    public boolean add(int textureId, float x, float y, float w, float h, int first, int elements, int groupId) {
+        commands++;
+        if (merge && size > 0) {
+            int last = size - 1;
+            int c = last * 4;
+            if (texture[last] == textureId && group[last] == groupId
+                    && clip[c] == x && clip[c + 1] == y && clip[c + 2] == w && clip[c + 3] == h
+                    && offset[last] + count[last] == first) {
+                count[last] += elements;
+                return true;
+            }
+        }
+        
+        ensureCapacity(size + 1);
+        
+        int c = size * 4;
+        texture[size] = textureId;
+        clip[c]       = x;
+        clip[c + 1]   = y;
+        clip[c + 2]   = w;
+        clip[c + 3]   = h;
+        offset[size]  = first;
+        count[size]   = elements;
+        group[size]   = groupId;
+        size++;
+        return false;
+    }
+    
+    /**
+     * Make sure there is room for the given number of draws.
+     * 
+     * @param capacity int
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity <= texture.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, texture.length * 2);
+        texture = Arrays.copyOf(texture, newCapacity);
+        clip    = Arrays.copyOf(clip, newCapacity * 4);
+        offset  = Arrays.copyOf(offset, newCapacity);
+        count   = Arrays.copyOf(count, newCapacity);
+        group   = Arrays.copyOf(group, newCapacity);
+    }
+
+    /**
+     * Returns the number of draws.
+     * @return int
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of commands added.
+     * @return int
+     */
+    public int getCommandCount() {
+        return commands;
+    }
+    
+    /**
+     * Returns the number of draws saved by merging commands.
+     * @return int
+     */
+    public int getMergedCount() {
+        return commands - size;
+    }
+    
+    /**
+     * Returns the texture identifier of a draw.
+     * 
+     * @param index int
+     * @return int
+     */
+    public int getTexture(int index) {
+        return texture[index];
+    }
+    
+    /**
+     * Returns the clipping x of a draw.
+     * 
+     * @param index int
+     * @return float
+     */
+    public float getClipX(int index) {
+        return clip[index * 4];
+    }
+    
+    /**
+     * Returns the clipping y of a draw.
+     * 
+     * @param index int
+     * @return float
+     */
+    public float getClipY(int index) {
+        return clip[index * 4 + 1];
+    }
+    
+    /**
+     * Returns the clipping width of a draw.
+     * 
+     * @param index int
+     * @return float
+     */
+    public float getClipWidth(int index) {
+        return clip[index * 4 + 2];
+    }
+    
+    /**
+     * Returns the clipping height of a draw.
+     * 
+     * @param index int
+     * @return float
+     */
+    public float getClipHeight(int index) {
+        return clip[index * 4 + 3];
+    }
+    
+    /**
+     * Returns the first element of a draw.
+     * 
+     * @param index int
+     * @return int
+     */
+    public int getOffset(int index) {
+        return offset[index];
+    }
+    
+    /**
+     * Returns the number of elements of a draw.
+     * 
+     * @param index int
+     * @return int
+     */
+    public int getCount(int index) {
+        return count[index];
+    }
+    
+    /**
+     * Returns the group of a draw.
+     * 
+     * @param index int
+     * @return int
+     */
+    public int getGroup(int index) {
+        return group[index];
+    }
+}
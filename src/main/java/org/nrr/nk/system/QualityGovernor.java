@@ -0,0 +1,209 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk.system;
+
+/**
+ * Class that adapts the tessellation quality to the time spent drawing the
+ * user interface.
+ * <p>
+ * The governor holds a list of profiles from the highest to the lowest
+ * quality. The time of the frames is averaged over a window of frames; when
+ * the average goes over the budget the next (lower) profile is used, and when
+ * it stays below a fraction of the budget the previous one is restored.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class QualityGovernor {
+    
+    /** Default number of frames averaged for each decision. */
+    public static final int DEFAULT_WINDOW = 30;
+    /** Default fraction of the budget below which the quality is restored. */
+    public static final float DEFAULT_HEADROOM = 0.5f;
+    
+    /** Profiles from the highest to the lowest quality. */
+    private final QualityProfile[] profiles;
+    
+    /** Maximum time, in milliseconds, to draw the user interface. */
+    private float budget;
+    /** Fraction of the budget below which the quality is restored. */
+    private float headroom = DEFAULT_HEADROOM;
+    /** Number of frames averaged for each decision. */
+    private int window = DEFAULT_WINDOW;
+    
+    /** Index of the current profile. */
+    private int level;
+    /** Time accumulated in the current window. */
+    private float total;
+    /** Frames accumulated in the current window. */
+    private int samples;
+
+    /**
+     * Constructor of the class <code>QualityGovernor</code> with the
+     * {@link QualityProfile#high() high}, {@link QualityProfile#medium() medium}
+     * and {@link QualityProfile#low() low} profiles.
+     * 
+     * @param budget milliseconds
+     */
+    public QualityGovernor(float budget) {
+        this(budget, QualityProfile.high(), QualityProfile.medium(), QualityProfile.low());
+    }
+    
+    /**
+     * Constructor of the class <code>QualityGovernor</code>.
+     * 
+     * @param budget milliseconds
+     * @param profiles profiles from the highest to the lowest quality
+     */
+    public QualityGovernor(float budget, QualityProfile... profiles) {
+        if (profiles.length == 0) {
+            throw new IllegalArgumentException("The governor needs at least one profile");
+        }
+        this.profiles = profiles.clone();
+        this.budget   = budget;
+    }
+    
+    /**
+     * Sets the {@code budget|float} attribute.
+     * 
+     * @param budget milliseconds
+     * @return QualityGovernor
+     */
+    public QualityGovernor budget(float budget) {
+        this.budget = budget;
+        return this;
+    }
+    
+    /**
+     * Sets the {@code headroom|float} attribute.
+     * 
+     * @param headroom fraction of the budget
+     * @return QualityGovernor
+     */
+    public QualityGovernor headroom(float headroom) {
+        this.headroom = headroom;
+        return this;
+    }
+    
+    /**
+     * Sets the {@code window|int} attribute.
+     * 
+     * @param window number of frames
+     * @return QualityGovernor
+     */
+    public QualityGovernor window(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("The window must be positive");
+        }
+        this.window = window;
+        return this;
+    }
+    
+    /**
+     * Register the time of a frame.
+     * 
+     * @param millis milliseconds spent drawing the user interface
+     * @return {@code true} if the current profile changed
+     */
+    public boolean update(float millis) {
+        total += millis;
+        if (++samples < window) {
+            return false;
+        }
+        
+        float average = total / samples;
+        total   = 0;
+        samples = 0;
+        
+        if (average > budget && level < profiles.length - 1) {
+            level++;
+            return true;
+        }
+        if (average < budget * headroom && level > 0) {
+            level--;
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Return to the highest quality.
+     */
+    public void reset() {
+        level   = 0;
+        total   = 0;
+        samples = 0;
+    }
+    
+    /**
+     * Returns the current profile.
+     * @return QualityProfile
+     */
+    public QualityProfile getProfile() {
+        return profiles[level];
+    }
+
+    /**
+     * Returns the index of the current profile, {@code 0} being the highest
+     * quality.
+     * 
+     * @return int
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns the value of the attribute: budget
+     * @return float
+     */
+    public float getBudget() {
+        return budget;
+    }
+
+    /**
+     * Returns the value of the attribute: headroom
+     * @return float
+     */
+    public float getHeadroom() {
+        return headroom;
+    }
+
+    /**
+     * Returns the value of the attribute: window
+     * @return int
+     */
+    public int getWindow() {
+        return window;
+    }
+}
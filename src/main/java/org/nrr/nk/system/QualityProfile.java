@@ -0,0 +1,249 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk.system;
+
+/**
+ * Class responsible for the tessellation quality with which Nuklear converts
+ * its commands into vertices: the number of segments of circles, curves and
+ * arcs, and the anti-aliasing of shapes and lines.
+ * <p>
+ * Anti-aliased shapes roughly double the vertices of rounded widgets, so they
+ * are the main cost to reduce on weak hardware.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class QualityProfile {
+    
+    /**
+     * Returns an instance.
+     * @return QualityProfile
+     */
+    public static QualityProfile builder() {
+        return new QualityProfile();
+    }
+    
+    /**
+     * Returns a new profile with the highest quality (22 segments and
+     * anti-aliasing), the one used by default.
+     * 
+     * @return QualityProfile
+     */
+    public static QualityProfile high() {
+        return builder().circleSegments(22)
+                        .curveSegments(22)
+                        .arcSegments(22)
+                        .shapeAA(true)
+                        .lineAA(true);
+    }
+    
+    /**
+     * Returns a new profile with fewer segments (14) that keeps the
+     * anti-aliasing.
+     * 
+     * @return QualityProfile
+     */
+    public static QualityProfile medium() {
+        return builder().circleSegments(14)
+                        .curveSegments(14)
+                        .arcSegments(14)
+                        .shapeAA(true)
+                        .lineAA(true);
+    }
+    
+    /**
+     * Returns a new profile with the lowest quality (8 segments and no
+     * anti-aliasing).
+     * 
+     * @return QualityProfile
+     */
+    public static QualityProfile low() {
+        return builder().circleSegments(8)
+                        .curveSegments(8)
+                        .arcSegments(8)
+                        .shapeAA(false)
+                        .lineAA(false);
+    }
+    
+    /** Number of segments of the circles. */
+    private int circleSegments;
+    /** Number of segments of the curves. */
+    private int curveSegments;
+    /** Number of segments of the arcs. */
+    private int arcSegments;
+    
+    /** Flag indicating whether the shapes are anti-aliased. */
+    private boolean shapeAA;
+    /** Flag indicating whether the lines are anti-aliased. */
+    private boolean lineAA;
+    
+    /**
+     * A flag that indicates if the profile changed.
+     */
+    private boolean needsUpdate;
+    /** Constructor of the class <code>QualityProfile</code>. */
+    private QualityProfile() {}
+    
+    /**
+     * Sets the {@code circleSegments|int} attribute.
+     * 
+     * @param circleSegments int
+     * @return QualityProfile
+     */
+    public QualityProfile circleSegments(int circleSegments) {
+        if (this.circleSegments != circleSegments) {
+            this.circleSegments = circleSegments;
+            this.needsUpdate    = true;
+        }
+        return this;
+    }
+    
+    /**
+     * Sets the {@code curveSegments|int} attribute.
+     * 
+     * @param curveSegments int
+     * @return QualityProfile
+     */
+    public QualityProfile curveSegments(int curveSegments) {
+        if (this.curveSegments != curveSegments) {
+            this.curveSegments = curveSegments;
+            this.needsUpdate   = true;
+        }
+        return this;
+    }
+    
+    /**
+     * Sets the {@code arcSegments|int} attribute.
+     * 
+     * @param arcSegments int
+     * @return QualityProfile
+     */
+    public QualityProfile arcSegments(int arcSegments) {
+        if (this.arcSegments != arcSegments) {
+            this.arcSegments = arcSegments;
+            this.needsUpdate = true;
+        }
+        return this;
+    }
+    
+    /**
+     * Sets the {@code shapeAA|boolean} attribute.
+     * 
+     * @param shapeAA boolean
+     * @return QualityProfile
+     */
+    public QualityProfile shapeAA(boolean shapeAA) {
+        if (this.shapeAA != shapeAA) {
+            this.shapeAA     = shapeAA;
+            this.needsUpdate = true;
+        }
+        return this;
+    }
+    
+    /**
+     * Sets the {@code lineAA|boolean} attribute.
+     * 
+     * @param lineAA boolean
+     * @return QualityProfile
+     */
+    public QualityProfile lineAA(boolean lineAA) {
+        if (this.lineAA != lineAA) {
+            this.lineAA      = lineAA;
+            this.needsUpdate = true;
+        }
+        return this;
+    }
+
+    /**
+     * Returns the value of the attribute: circleSegments
+     * @return int
+     */
+    public int getCircleSegments() {
+        return circleSegments;
+    }
+
+    /**
+     * Returns the value of the attribute: curveSegments
+     * @return int
+     */
+    public int getCurveSegments() {
+        return curveSegments;
+    }
+
+    /**
+     * Returns the value of the attribute: arcSegments
+     * @return int
+     */
+    public int getArcSegments() {
+        return arcSegments;
+    }
+
+    /**
+     * Returns the value of the attribute: shapeAA
+     * @return boolean
+     */
+    public boolean isShapeAA() {
+        return shapeAA;
+    }
+
+    /**
+     * Returns the value of the attribute: lineAA
+     * @return boolean
+     */
+    public boolean isLineAA() {
+        return lineAA;
+    }
+
+    /**
+     * Indicates if there is a pending update.
+     * @return boolean
+     */
+    public boolean needsUpdate() {
+        return needsUpdate;
+    }
+    
+    /**
+     * Update ends
+     */
+    public void managedUpdate() {
+        this.needsUpdate = false;
+    }
+
+    /*(non-Javadoc)
+     */
+    @Override
+    public String toString() {
+        return "QualityProfile{" + "circleSegments=" + circleSegments + ", curveSegments=" + curveSegments 
+                + ", arcSegments=" + arcSegments + ", shapeAA=" + shapeAA + ", lineAA=" + lineAA + '}';
+    }
+}
@@ -30,6 +30,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package org.nrr.nk.system;
 
+import java.lang.reflect.Constructor;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 
@@ -51,6 +52,68 @@ import static com.jme3.util.BufferUtils.*;
  * @since 1.0.0
  */
 public class Vertex {
+    
+    /**
+     * Constructor of the implementation with the Vector API, {@code null} if
+     * it was not built (with {@code -PvectorApi=true}) or the module
+     * {@code jdk.incubator.vector} is not present; it must be added with
+     * {@code --add-modules jdk.incubator.vector}.
+     */
+    private static final Constructor<?> VECTOR_CONVERTER = findVectorConverter();
+    /** {@code true} if the implementation with the Vector API can be used. */
+    private static final boolean VECTOR_SUPPORTED = VECTOR_CONVERTER != null;
+    /** Minimum number of vertices for which the Vector API is used. */
+    private static final int VECTOR_THRESHOLD = 32;
+    
+    /** Flag indicating whether the vertices are built with the Vector API. */
+    private static volatile boolean vectorEnabled = VECTOR_SUPPORTED;
+    
+    /**
+     * Returns {@code true} if the implementation with the Vector API was built
+     * and its module is present.
+     * 
+     * @return boolean
+     */
+    public static boolean isVectorSupported() {
+        return VECTOR_SUPPORTED;
+    }
+    
+    /**
+     * Look up the implementation with the Vector API; it is only loaded when
+     * its module is present, so the library never needs the module.
+     * 
+     * @return its constructor, or {@code null}
+     */
+    private static Constructor<?> findVectorConverter() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return Class.forName("org.nrr.nk.system.VectorConverter")
+                        .getDeclaredConstructor(int.class);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Sets whether the vertices are built with the Vector API when its module
+     * is present; otherwise the scalar implementation is used.
+     * 
+     * @param enabled boolean
+     */
+    public static void setVectorEnabled(boolean enabled) {
+        vectorEnabled = enabled && VECTOR_SUPPORTED;
+    }
+
+    /**
+     * Returns {@code true} if the vertices are built with the Vector API.
+     * 
+     * @return boolean
+     */
+    public static boolean isVectorEnabled() {
+        return vectorEnabled;
+    }
 
     /**  A buffer with the positions (coordinates). */
     private final FloatBuffer position;    
@@ -64,17 +127,14 @@ public class Vertex {
      */
     private final int capacity;
 
-    /**
-     * The height of the graphics window that will be used to invert the
-     * coordinates.
-     */
-    private float height;
-    
     /**
      * The minimum index of the element buffer.
      */
     private int min;
     
+    /** Implementation with the Vector API, created when first used. */
+    private VertexConverter converter;
+    
     /**
      * Generate a new vertex handler {@code Vertex } with the respective capacities 
      * of each buffer.
@@ -104,9 +164,11 @@ public class Vertex {
      * 
      * @param height float
      * @return Vertex
+     * @deprecated the inversion of the Y axis is done by the Nuklear shader, so
+     * the height is no longer used; this method does nothing.
      */
+    @Deprecated
     public Vertex height(float height) {
-        this.height = height;
         return this;
     }
     
@@ -132,13 +194,72 @@ public class Vertex {
      * that corresponds to the displacements of positions, coordinates, and colors
      * within the pointer.
      * </p>
+     * <p>
+     * Positions and coordinates are kept as Nuklear writes them; the projection
+     * and the inversion of the Y axis are done by the Nuklear shader.
+     * </p>
      *
      * @param vertices the vertex buffer
      * @param vertexsize number of vertices per segment
      */
     public void make(ByteBuffer vertices, int vertexsize) {
+        make(vertices, vertexsize, capacity);
+    }
+    
+    /**
+     * Method responsible for building the first {@code count} vertices in each
+     * buffer, starting at the minimum index.
+     * 
+     * @see #make(java.nio.ByteBuffer, int) 
+     * 
+     * @param vertices the vertex buffer
+     * @param vertexsize number of vertices per segment
+     * @param count number of vertices to read
+     */
+    public void make(ByteBuffer vertices, int vertexsize, int count) {
+        if (count > capacity) {
+            throw new IndexOutOfBoundsException("Vertex count " + count + " exceeds capacity " + capacity);
+        }
         int base = min * vertexsize;
-        for (int i = 0; i < capacity; i++) {
+        if (vectorEnabled && count >= VECTOR_THRESHOLD 
+                && vertexsize >= 5 * Float.BYTES && vertexsize % Float.BYTES == 0) {
+            if (converter == null || converter.getVertexSize() != vertexsize) {
+                converter = newVectorConverter(vertexsize);
+            }
+            converter.make(vertices, base, count, position, texture, color);
+        } else {
+            makeScalar(vertices, base, vertexsize, count);
+        }
+        
+        position.flip();
+        texture.flip();
+        color.flip();
+    }
+    
+    /**
+     * Create the implementation with the Vector API for a vertex size.
+     * 
+     * @param vertexsize size in bytes of each vertex
+     * @return VertexConverter
+     */
+    private static VertexConverter newVectorConverter(int vertexsize) {
+        try {
+            return (VertexConverter) VECTOR_CONVERTER.newInstance(vertexsize);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create the Vector API implementation", e);
+        }
+    }
+    
+    /**
+     * Build the vertices one by one.
+     * 
+     * @param vertices the vertex buffer
+     * @param base offset in bytes of the first vertex
+     * @param vertexsize number of vertices per segment
+     * @param count number of vertices to read
+     */
+    private void makeScalar(ByteBuffer vertices, int base, int vertexsize, int count) {
+        for (int i = 0; i < count; i++) {
             int offset = base + i * vertexsize;
             
             float x = vertices.getFloat(offset);
@@ -146,8 +267,8 @@ public class Vertex {
             float u = vertices.getFloat(offset + (Float.BYTES * 2));
             float v = vertices.getFloat(offset + (Float.BYTES * 3));
             
-            position.put(x).put(height - y);
-            texture.put(u).put(1.0f - v);
+            position.put(x).put(y);
+            texture.put(u).put(v);
             
             int rgba = vertices.getInt(offset + (Float.BYTES * 4));
             float a = ((rgba >> 24) & 0xFF) / 255f;
@@ -157,10 +278,6 @@ public class Vertex {
 
             color.put(r).put(g).put(b).put(a);
         }
-        
-        position.flip();
-        texture.flip();
-        color.flip();
     }
     
     /**
@@ -0,0 +1,63 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk.system;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * An interface for the implementations of {@link Vertex#make(java.nio.ByteBuffer, int, int)}
+ * that are loaded at runtime, such as the one that uses the Vector API.
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+interface VertexConverter {
+    
+    /**
+     * Returns the size in bytes of the vertices that this converter reads.
+     * @return int
+     */
+    int getVertexSize();
+    
+    /**
+     * Build the vertices in each buffer.
+     * 
+     * @param vertices the vertex buffer
+     * @param base offset in bytes of the first vertex
+     * @param count number of vertices to read
+     * @param positions buffer of positions
+     * @param textures buffer of texture coordinates
+     * @param colors buffer of colors
+     */
+    void make(ByteBuffer vertices, int base, int count, FloatBuffer positions, FloatBuffer textures, FloatBuffer colors);
+}
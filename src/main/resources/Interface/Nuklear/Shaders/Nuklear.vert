@@ -0,0 +1,23 @@
+#import "Common/ShaderLib/GLSLCompat.glsllib"
+
+uniform vec2 m_ViewSize;
+uniform vec2 m_ViewOffset;
+
+// Vertices as written by Nuklear
+attribute vec2 inPosition;
+attribute vec2 inTexCoord;
+attribute vec4 inColor;
+
+varying vec2 texCoord;
+varying vec4 vertColor;
+
+void main() {
+    // Nuklear places the origin of the texture coordinates at the top
+    texCoord  = vec2(inTexCoord.x, 1.0 - inTexCoord.y);
+    vertColor = inColor;
+
+    // Orthographic projection; the origin of Nuklear is the top left corner
+    // of the view, so the Y axis is inverted.
+    vec2 position = (inPosition - m_ViewOffset) / m_ViewSize * 2.0 - 1.0;
+    gl_Position = vec4(position.x, -position.y, 0.0, 1.0);
+}
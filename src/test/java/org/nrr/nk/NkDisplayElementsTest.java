@@ -0,0 +1,105 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+import com.jme3.util.BufferUtils;
+
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the widening of the 16-bit elements written by Nuklear for the
+ * frames with more vertices than a 16-bit element can address.
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+class NkDisplayElementsTest {
+    
+    @Test
+    void widensAroundTheVertexBoundary() {
+        assertFalse(NkDisplay.needsWideElements(65535));
+        assertFalse(NkDisplay.needsWideElements(65536));
+        assertTrue(NkDisplay.needsWideElements(65537));
+    }
+    
+    @Test
+    void keepsElementsBelowTheBoundary() {
+        assertWidened(0, 1, 2, 30000, 40000, 65533, 65534, 65535, 40000);
+    }
+    
+    @Test
+    void restoresElementsPastTheBoundary() {
+        // strip of triangles over the last 16-bit index
+        int[] elements = new int[3 * 16];
+        for (int i = 0; i < 16; i++) {
+            elements[3 * i]     = 65528 + i;
+            elements[3 * i + 1] = 65529 + i;
+            elements[3 * i + 2] = 65530 + i;
+        }
+        assertWidened(elements);
+        
+        assertWidened(65535, 65536, 65537, 65535, 65537, 65538);
+    }
+    
+    @Test
+    void restoresElementsBehindTheHighestIndex() {
+        // a primitive past the boundary that refers to vertices below it
+        assertWidened(65534, 65535, 65536, 70000, 65530, 65535, 65536, 70001, 70002);
+    }
+    
+    @Test
+    void restoresElementsPastSeveralBoundaries() {
+        assertWidened(0, 1, 2, 40000, 65535, 65536, 90000, 110000, 131071, 131072, 131073, 131070, 
+                      150000, 180000, 196608, 196607);
+    }
+    
+    private static void assertWidened(int... expected) {
+        ShortBuffer elements = BufferUtils.createShortBuffer(expected.length);
+        for (int index : expected) {
+            elements.put((short) index);
+        }
+        elements.flip();
+        
+        IntBuffer wide = BufferUtils.createIntBuffer(expected.length + 4);
+        wide.put(new int[] { -1, -1 });
+        NkDisplay.widenElements(elements, expected.length, wide);
+        
+        int[] actual = new int[wide.remaining()];
+        wide.get(actual);
+        assertArrayEquals(expected, actual);
+    }
+}
@@ -0,0 +1,306 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.lwjgl.nuklear.*;
+import org.lwjgl.system.MemoryStack;
+
+import org.nrr.nk.system.DrawList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lwjgl.nuklear.Nuklear.*;
+import static org.lwjgl.system.MemoryUtil.*;
+
+/**
+ * Tests of the tags of {@link NkLayer}: a frame with two tagged windows,
+ * converted once, must give each window exactly the draws it gets when it is
+ * the only window tagged, and the user data of the application must be kept.
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+class NkLayerTest {
+    
+    /** Size of the buffers of the conversion. */
+    private static final int BUFFER_SIZE = 512 * 1024;
+    
+    /** Layout of the vertices, as converted by the display. */
+    private static final NkDrawVertexLayoutElement.Buffer VERTEX_LAYOUT = NkDrawVertexLayoutElement.create(4)
+            .position(0).attribute(NK_VERTEX_POSITION).format(NK_FORMAT_FLOAT).offset(0)
+            .position(1).attribute(NK_VERTEX_TEXCOORD).format(NK_FORMAT_FLOAT).offset(8)
+            .position(2).attribute(NK_VERTEX_COLOR).format(NK_FORMAT_R8G8B8A8).offset(16)
+            .position(3).attribute(NK_VERTEX_ATTRIBUTE_COUNT).format(NK_FORMAT_COUNT).offset(0)
+            .flip();
+    
+    private NkResourceHub hub;
+    private NkUserFont font;
+    private NkContext ctx;
+    private NkBuffer cmds;
+    private NkDrawNullTexture nullTexture;
+    private ByteBuffer vertices;
+    private ByteBuffer elements;
+    
+    @BeforeEach
+    void setUp() {
+        hub  = new NkResourceHub(null);
+        hub.retain();
+        font = NkUserFont.calloc()
+                .width((handle, h, text, len) -> len * 7f)
+                .height(13)
+                .query((handle, fontHeight, glyph, codepoint, next) -> {
+                    NkUserFontGlyph.create(glyph)
+                            .width(7)
+                            .height(13)
+                            .xadvance(7);
+                });
+        font.texture().id(1);
+        
+        ctx  = NkContext.calloc();
+        cmds = NkBuffer.calloc();
+        nk_init(ctx, hub.getAllocator(), font);
+        nk_buffer_init(cmds, hub.getAllocator(), 4 * 1024);
+        
+        nullTexture = NkDrawNullTexture.calloc();
+        nullTexture.texture().id(1);
+        nullTexture.uv().set(0.5f, 0.5f);
+        
+        vertices = memAlloc(BUFFER_SIZE);
+        elements = memAlloc(BUFFER_SIZE);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        nk_buffer_free(cmds);
+        nk_free(ctx);
+        font.width().free();
+        font.query().free();
+        
+        memFree(vertices);
+        memFree(elements);
+        nullTexture.free();
+        cmds.free();
+        ctx.free();
+        font.free();
+        hub.release(true);
+    }
+    
+    @Test
+    void splitsTheDrawsOfTwoTaggedWindows() {
+        DrawList alone = new DrawList().merge(false);
+        
+        frame(1, NkLayer.NO_TAG);
+        convert(alone);
+        int firstCount    = count(alone, 1);
+        int firstElements = elements(alone, 1);
+        
+        frame(NkLayer.NO_TAG, 2);
+        convert(alone);
+        int secondCount    = count(alone, 2);
+        int secondElements = elements(alone, 2);
+        
+        DrawList together = new DrawList().merge(false);
+        frame(1, 2);
+        convert(together);
+        
+        assertEquals(firstCount, count(together, 1));
+        assertEquals(secondCount, count(together, 2));
+        assertEquals(firstElements, elements(together, 1));
+        assertEquals(secondElements, elements(together, 2));
+        assertEquals(together.size(), count(together, 1) + count(together, 2));
+        
+        // the draws of each window are contiguous, in the order of the windows
+        for (int i = 1; i < together.size(); i++) {
+            assertTrue(together.getGroup(i) >= together.getGroup(i - 1));
+        }
+    }
+    
+    @Test
+    void keepsTheGeometryOfTheFrame() {
+        DrawList plain = new DrawList().merge(false);
+        frame(NkLayer.NO_TAG, NkLayer.NO_TAG);
+        convert(plain);
+        int plainElements = elements(plain, NkLayer.NO_TAG);
+        
+        DrawList tagged = new DrawList().merge(false);
+        frame(1, 2);
+        convert(tagged);
+        
+        assertEquals(plainElements, elements(tagged, 1) + elements(tagged, 2));
+    }
+    
+    @Test
+    void mergesOnlyWithinAWindow() {
+        DrawList merged = new DrawList();
+        frame(1, 2);
+        convert(merged);
+        
+        assertTrue(count(merged, 1) > 0);
+        assertTrue(count(merged, 2) > 0);
+        assertEquals(merged.size(), count(merged, 1) + count(merged, 2));
+    }
+    
+    @Test
+    void keepsTheUserDataOfTheApplication() {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            nk_push_userdata(ctx, NkHandle.malloc(stack).ptr(0x7F000000L));
+        }
+        
+        DrawList list = new DrawList().merge(false);
+        frame(1, NkLayer.NO_TAG);
+        assertEquals(0x7F000000L, ctx.userdata().ptr());
+        convert(list);
+        
+        // the second window keeps the user data of the application
+        assertTrue(count(list, 1) > 0);
+        assertTrue(count(list, 0x7F000000) > 0);
+        assertEquals(list.size(), count(list, 1) + count(list, 0x7F000000));
+    }
+    
+    /**
+     * Build a frame with two windows, each begun with its tag; a window with
+     * no tag is begun directly with {@code nk_begin}.
+     * 
+     * @param first tag of the first window
+     * @param second tag of the second window
+     */
+    private void frame(int first, int second) {
+        nk_clear(ctx);
+        nk_input_begin(ctx);
+        nk_input_end(ctx);
+        window("First", 20, 20, first);
+        window("Second", 300, 40, second);
+    }
+    
+    /**
+     * Build a window with a label and a button.
+     * 
+     * @param name String
+     * @param x float
+     * @param y float
+     * @param tag tag of the window
+     */
+    private void window(String name, float x, float y, int tag) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            NkRect rect  = nk_rect(x, y, 220, 160, NkRect.malloc(stack));
+            int flags    = NK_WINDOW_BORDER | NK_WINDOW_TITLE;
+            boolean open = tag == NkLayer.NO_TAG ? nk_begin(ctx, name, rect, flags)
+                                                 : NkLayer.begin(ctx, tag, name, name, rect, flags);
+            if (open) {
+                nk_layout_row_dynamic(ctx, 24, 1);
+                nk_label(ctx, name, NK_TEXT_LEFT);
+                nk_button_label(ctx, "Button");
+            }
+            nk_end(ctx);
+        }
+    }
+    
+    /**
+     * Convert the frame and collect its draws as the display does, grouped by
+     * the user data of their commands.
+     * 
+     * @param list DrawList
+     */
+    private void convert(DrawList list) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            NkConvertConfig config = NkConvertConfig.calloc(stack)
+                .vertex_layout(VERTEX_LAYOUT)
+                .vertex_size(20)
+                .vertex_alignment(4)
+                .tex_null(nullTexture)
+                .circle_segment_count(22)
+                .curve_segment_count(22)
+                .arc_segment_count(22)
+                .global_alpha(1.0f)
+                .shape_AA(NK_ANTI_ALIASING_ON)
+                .line_AA(NK_ANTI_ALIASING_ON);
+            
+            NkBuffer vbuf = NkBuffer.malloc(stack);
+            NkBuffer ebuf = NkBuffer.malloc(stack);
+            nk_buffer_init_fixed(vbuf, vertices.clear());
+            nk_buffer_init_fixed(ebuf, elements.clear());
+            nk_buffer_clear(cmds);
+            assertEquals(NK_CONVERT_SUCCESS, nk_convert(ctx, cmds, vbuf, ebuf, config));
+        }
+        
+        list.clear();
+        int offset = 0;
+        for (NkDrawCommand cmd = nk__draw_begin(ctx, cmds); cmd != null; cmd = nk__draw_next(cmd, cmds, ctx)) {
+            if (cmd.elem_count() == 0) {
+                continue;
+            }
+            NkRect clip = cmd.clip_rect();
+            list.add(cmd.texture().id(), clip.x(), clip.y(), clip.w(), clip.h(), offset, cmd.elem_count(), 
+                     NkLayer.tagOf(cmd));
+            offset += cmd.elem_count();
+        }
+    }
+    
+    /**
+     * Returns the number of draws of a group.
+     * 
+     * @param list DrawList
+     * @param group int
+     * @return int
+     */
+    private static int count(DrawList list, int group) {
+        int count = 0;
+        for (int i = 0; i < list.size(); i++) {
+            if (list.getGroup(i) == group) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Returns the number of elements of a group.
+     * 
+     * @param list DrawList
+     * @param group int
+     * @return int
+     */
+    private static int elements(DrawList list, int group) {
+        int elements = 0;
+        for (int i = 0; i < list.size(); i++) {
+            if (list.getGroup(i) == group) {
+                elements += list.getCount(i);
+            }
+        }
+        return elements;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+import com.jme3.scene.VertexBuffer.Format;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.util.BufferUtils;
+
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of {@link NkMesh}: the format of the element buffers when a frame
+ * switches between 16-bit and 32-bit elements.
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+class NkMeshTest {
+    
+    @Test
+    void switchesIndexBufferBackTo16Bits() {
+        NkMesh mesh = new NkMesh(NkDisplay.RenderMode.COMMAND);
+        assertEquals(Format.UnsignedShort, mesh.getBuffer(Type.Index).getFormat());
+        
+        IntBuffer wide = ints(0, 1, 65536);
+        mesh.updateBuffer(Type.Index, wide, 3);
+        assertEquals(Format.UnsignedInt, mesh.getBuffer(Type.Index).getFormat());
+        assertSame(wide, mesh.getBuffer(Type.Index).getData());
+        
+        ShortBuffer narrow = shorts(0, 1, 2);
+        mesh.updateBuffer(Type.Index, narrow, 3);
+        assertEquals(Format.UnsignedShort, mesh.getBuffer(Type.Index).getFormat());
+        assertSame(narrow, mesh.getBuffer(Type.Index).getData());
+        
+        // the same format keeps the buffer
+        mesh.updateBuffer(Type.Index, shorts(2, 1, 0), 3);
+        assertEquals(Format.UnsignedShort, mesh.getBuffer(Type.Index).getFormat());
+        
+        // the buffers replaced wait to be deleted on the render thread
+        assertEquals(2, mesh.getDiscardedCount());
+    }
+    
+    @Test
+    void updatesIndexBufferAfterClearBuffer() {
+        NkMesh mesh = new NkMesh(NkDisplay.RenderMode.COMMAND);
+        mesh.updateBuffer(Type.Index, ints(0, 1, 65536), 3);
+        
+        mesh.clearBuffer(Type.Index);
+        assertNull(mesh.getBuffer(Type.Index));
+        
+        mesh.updateBuffer(Type.Index, shorts(0, 1, 2), 3);
+        assertEquals(Format.UnsignedShort, mesh.getBuffer(Type.Index).getFormat());
+        
+        mesh.clearBuffer(Type.Index);
+        mesh.updateBuffer(Type.Index, ints(0, 1, 65536), 3);
+        assertEquals(Format.UnsignedInt, mesh.getBuffer(Type.Index).getFormat());
+    }
+    
+    @Test
+    void switchesRangeBackTo16Bits() {
+        NkMesh mesh = new NkMesh(NkDisplay.RenderMode.FRAME);
+        
+        mesh.updateRange(0, ints(0, 1, 65536));
+        assertEquals(Format.UnsignedInt, mesh.getLodLevel(0).getFormat());
+        
+        ShortBuffer narrow = shorts(0, 1, 2);
+        mesh.updateRange(0, narrow);
+        assertEquals(Format.UnsignedShort, mesh.getLodLevel(0).getFormat());
+        assertSame(narrow, mesh.getLodLevel(0).getData());
+        
+        mesh.updateRange(1, ints(65535, 65536, 65537));
+        assertEquals(Format.UnsignedShort, mesh.getLodLevel(0).getFormat());
+        assertEquals(Format.UnsignedInt, mesh.getLodLevel(1).getFormat());
+        
+        // a new range replaces no buffer
+        assertEquals(1, mesh.getDiscardedCount());
+    }
+    
+    private static ShortBuffer shorts(int... values) {
+        ShortBuffer buffer = BufferUtils.createShortBuffer(values.length);
+        for (int value : values) {
+            buffer.put((short) value);
+        }
+        buffer.flip();
+        return buffer;
+    }
+    
+    private static IntBuffer ints(int... values) {
+        IntBuffer buffer = BufferUtils.createIntBuffer(values.length);
+        buffer.put(values).flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the allocators of {@link NkResourceHub}: the private hubs of the
+ * displays share one allocator, while a hub created by the application owns
+ * its own.
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+class NkResourceHubTest {
+    
+    @Test
+    void sharesTheAllocatorOfThePrivateHubs() {
+        NkResourceHub first  = NkResourceHub.createPrivate(null);
+        NkResourceHub second = NkResourceHub.createPrivate(null);
+        first.retain();
+        second.retain();
+        assertSame(first.getAllocator(), second.getAllocator());
+        
+        // releasing a display without the allocator keeps it for the others
+        first.release(false);
+        assertNotNull(second.getAllocator().alloc());
+        assertSame(second.getAllocator(), NkResourceHub.createPrivate(null).getAllocator());
+        
+        // once freed, the next private hub gets a new one
+        second.release(true);
+        assertNotSame(second.getAllocator(), NkResourceHub.createPrivate(null).getAllocator());
+    }
+    
+    @Test
+    void ownsTheAllocatorOfAHub() {
+        NkResourceHub hub = new NkResourceHub(null);
+        hub.retain();
+        assertNotSame(hub.getAllocator(), NkResourceHub.createPrivate(null).getAllocator());
+        assertNotSame(hub.getAllocator(), new NkResourceHub(null).getAllocator());
+        
+        hub.release(true);
+        assertEquals(0, hub.getReferences());
+        assertThrows(IllegalStateException.class, hub::retain);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture2D;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.util.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.lwjgl.nuklear.NkImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of {@link NkTextureAtlas}: the packing of the images and the regions
+ * uploaded, with the textures of the pages kept away from the GPU.
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+class NkTextureAtlasTest {
+    
+    /**
+     * Atlas that records the textures of its pages and the regions uploaded.
+     */
+    private static final class RecordingAtlas extends NkTextureAtlas {
+        
+        final List<Texture2D> textures = new ArrayList<>();
+        final List<int[]> regions = new ArrayList<>();
+
+        RecordingAtlas(int pageSize, int maxImageSize) {
+            super(null, pageSize, maxImageSize);
+        }
+
+        @Override
+        int registerTexture(Texture2D texture) {
+            textures.add(texture);
+            return textures.size();
+        }
+
+        @Override
+        void uploadRegion(Texture2D texture, int x, int y, int width, int height) {
+            regions.add(new int[] { indexOf(texture) + 1, x, y, width, height });
+        }
+
+        @Override
+        void deleteTexture(Texture2D texture) {
+            textures.set(indexOf(texture), null);
+        }
+        
+        int indexOf(Texture2D texture) {
+            for (int i = 0; i < textures.size(); i++) {
+                if (textures.get(i) == texture) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+    
+    private RecordingAtlas atlas;
+    
+    @BeforeEach
+    void setUp() {
+        atlas = new RecordingAtlas(16, 8);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        atlas.dispose();
+    }
+    
+    @Test
+    void addsANewPageWhenTheRepackOverflows() {
+        // in this order the images share one page, but tallest-first the
+        // 8x1 image finds no shelf and no room below them
+        List<NkImage> images = new ArrayList<>();
+        images.add(atlas.add(image(2, 5, 1)));
+        images.add(atlas.add(image(8, 1, 2)));
+        images.add(atlas.add(image(4, 7, 3)));
+        images.add(atlas.add(image(8, 4, 4)));
+        assertEquals(1, atlas.getPageCount());
+        
+        atlas.defragment();
+        
+        assertEquals(2, atlas.getPageCount());
+        assertEquals(4, atlas.getImageCount());
+        for (NkImage image : images) {
+            int id = image.handle().id();
+            assertTrue(id > 0 && atlas.textures.get(id - 1) != null, "the image has no page");
+        }
+        for (int i = 0; i < images.size(); i++) {
+            assertEquals(i + 1, pixel(images.get(i)), "the pixels were not moved with the image");
+        }
+    }
+    
+    @Test
+    void uploadsOnlyTheRegionOfTheImages() {
+        NkImage first  = atlas.add(image(4, 3, 1));
+        NkImage second = atlas.add(image(2, 2, 2));
+        assertArrayEquals(new int[] { 1, 1, 1, 4, 3 }, atlas.regions.get(0));
+        assertArrayEquals(new int[] { 1, 7, 1, 2, 2 }, atlas.regions.get(1));
+        
+        atlas.remove(first);
+        assertEquals(3, atlas.regions.size());
+        assertArrayEquals(new int[] { 1, 1, 1, 4, 3 }, atlas.regions.get(2));
+        assertEquals(2, pixel(second));
+    }
+    
+    /**
+     * Returns an image whose pixels all have a value.
+     * 
+     * @param width int
+     * @param height int
+     * @param value red component of the pixels
+     * @return Image
+     */
+    private static Image image(int width, int height, int value) {
+        ByteBuffer data = BufferUtils.createByteBuffer(width * height * 4);
+        for (int i = 0; i < width * height; i++) {
+            data.put((byte) value).put((byte) 0).put((byte) 0).put((byte) 255);
+        }
+        data.flip();
+        return new Image(Image.Format.RGBA8, width, height, data, ColorSpace.sRGB);
+    }
+    
+    /**
+     * Returns the red component of the top left pixel of an image in its page.
+     * 
+     * @param image NkImage
+     * @return int
+     */
+    private int pixel(NkImage image) {
+        Texture2D texture = atlas.textures.get(image.handle().id() - 1);
+        int x = image.region(0);
+        int y = image.region(1);
+        int size = atlas.getPageSize();
+        // the first row of the page is its bottom one
+        return texture.getImage().getData(0).get(((size - 1 - y) * size + x) * 4) & 0xFF;
+    }
+}
@@ -0,0 +1,259 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk;
+
+import com.jme3.renderer.Renderer;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.texture.Texture2D;
+import com.jme3.texture.image.ColorSpace;
+import com.jme3.util.BufferUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of {@link NkTextureRegistry}: the counting of the handles, the
+ * identifiers given on a collision and the eviction of the textures drawn
+ * least recently over the budget.
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+class NkTextureRegistryTest {
+    
+    /** Bytes of each texture of the tests. */
+    private static final long TEXTURE_BYTES = 4 * 4 * 4;
+    
+    private NkTextureRegistry registry;
+    private Renderer renderer;
+    private List<Image> deleted;
+    private Object display;
+    
+    @BeforeEach
+    void setUp() {
+        registry = new NkTextureRegistry();
+        deleted  = new ArrayList<>();
+        display  = new Object();
+        
+        // renderer that only deletes the images, as the GL renderer does
+        renderer = (Renderer) Proxy.newProxyInstance(Renderer.class.getClassLoader(), 
+                new Class<?>[] { Renderer.class }, (proxy, method, args) -> {
+            if (method.getName().equals("deleteImage")) {
+                Image image = (Image) args[0];
+                deleted.add(image);
+                image.resetObject();
+            }
+            return null;
+        });
+    }
+    
+    @Test
+    void countsTheHandles() {
+        Texture texture = texture(5);
+        assertEquals(5, registry.register(texture));
+        assertEquals(5, registry.register(texture));
+        assertEquals(1, registry.size());
+        assertEquals(TEXTURE_BYTES, registry.getResidentBytes());
+        
+        assertFalse(registry.release(texture));
+        assertTrue(registry.contains(texture));
+        assertTrue(registry.release(5));
+        assertFalse(registry.contains(texture));
+        assertFalse(registry.contains(5));
+        assertEquals(0, registry.getResidentBytes());
+        
+        // a handle released twice does nothing
+        assertFalse(registry.release(texture));
+    }
+    
+    @Test
+    void registersOnceWithoutCounting() {
+        Texture texture = texture(5);
+        assertTrue(registry.registerOnce(5, texture));
+        assertFalse(registry.registerOnce(5, texture));
+        assertFalse(registry.registerOnce(5, texture));
+        
+        assertTrue(registry.release(texture));
+        assertEquals(0, registry.size());
+    }
+    
+    @Test
+    void givesSyntheticIdentifiersOnCollision() {
+        Texture first  = texture(5);
+        Texture second = texture(5);
+        Texture third  = texture(-1);
+        
+        assertEquals(5, registry.register(first));
+        assertEquals(-2, registry.register(second));
+        assertEquals(-3, registry.register(third));
+        
+        assertEquals(-2, registry.getId(second));
+        assertSame(second, registry.get(-2));
+        assertSame(first, registry.get(5));
+        
+        // the identifier does not change while the texture is registered
+        second.getImage().resetObject();
+        second.getImage().setId(9);
+        assertEquals(-2, registry.register(second));
+        assertEquals(-2, registry.getId(second));
+        
+        // a texture not registered uses its GL identifier
+        assertEquals(7, registry.getId(texture(7)));
+    }
+    
+    @Test
+    void evictsTheTexturesDrawnLeastRecently() {
+        Texture a = texture(1);
+        Texture b = texture(2);
+        Texture c = texture(3);
+        registry.register(a);
+        registry.register(b);
+        registry.register(c);
+        registry.setBudget(2 * TEXTURE_BYTES);
+        
+        // the textures registered in the frame are kept
+        assertTrue(registry.beginFrame(display, renderer));
+        assertTrue(deleted.isEmpty());
+        
+        frame(1, 2, 3);
+        assertTrue(deleted.isEmpty());
+        frame(2, 3);
+        assertEquals(List.of(a.getImage()), deleted);
+        frame(3);
+        assertEquals(List.of(a.getImage()), deleted);
+        assertEquals(2 * TEXTURE_BYTES, registry.getResidentBytes());
+        assertEquals(1, registry.getEvictions());
+        
+        // drawing it again counts it as uploaded, keeping the handle
+        assertSame(a, registry.draw(1));
+        assertEquals(3 * TEXTURE_BYTES, registry.getResidentBytes());
+        
+        frame(3);
+        assertEquals(List.of(a.getImage(), b.getImage()), deleted);
+        assertEquals(2 * TEXTURE_BYTES, registry.getResidentBytes());
+        assertTrue(registry.contains(2));
+    }
+    
+    @Test
+    void keepsTheTexturesWithinTheBudget() {
+        registry.register(texture(1));
+        registry.register(texture(2));
+        registry.beginFrame(display, renderer);
+        
+        registry.setBudget(2 * TEXTURE_BYTES);
+        frame();
+        frame();
+        assertTrue(deleted.isEmpty());
+        
+        registry.setBudget(Long.MAX_VALUE);
+        registry.register(texture(3));
+        frame();
+        assertTrue(deleted.isEmpty());
+    }
+    
+    @Test
+    void keepsTheTexturesDrawnInTheLastFrame() {
+        registry.register(texture(1));
+        registry.register(texture(2));
+        registry.setBudget(0);
+        registry.beginFrame(display, renderer);
+        
+        frame(1, 2);
+        assertTrue(deleted.isEmpty());
+        
+        frame(2);
+        assertEquals(1, deleted.size());
+        assertEquals(TEXTURE_BYTES, registry.getResidentBytes());
+    }
+    
+    @Test
+    void keepsTheTexturesWithoutPixels() {
+        Image image = new Image(Image.Format.RGBA8, 4, 4, null, ColorSpace.Linear);
+        image.setId(1);
+        Texture2D texture = new Texture2D(image);
+        texture.setMinFilter(Texture.MinFilter.BilinearNoMipMaps);
+        
+        registry.register(texture);
+        registry.setBudget(0);
+        registry.beginFrame(display, renderer);
+        frame();
+        frame();
+        assertTrue(deleted.isEmpty());
+    }
+    
+    @Test
+    void countsTheFramesWithASingleDisplay() {
+        Object other = new Object();
+        assertTrue(registry.beginFrame(display, renderer));
+        assertFalse(registry.beginFrame(other, renderer));
+        
+        registry.endFrames(other);
+        assertFalse(registry.beginFrame(other, renderer));
+        
+        registry.endFrames(display);
+        assertTrue(registry.beginFrame(other, renderer));
+        assertFalse(registry.beginFrame(display, renderer));
+    }
+    
+    /**
+     * Draw the textures of a frame and start the next frame.
+     * 
+     * @param ids identifiers of the textures drawn
+     */
+    private void frame(int... ids) {
+        for (int id : ids) {
+            assertNotNull(registry.draw(id));
+        }
+        assertTrue(registry.beginFrame(display, renderer));
+    }
+    
+    /**
+     * Returns a texture of 4x4 with its pixels in memory.
+     * 
+     * @param id GL identifier of its image
+     * @return Texture
+     */
+    private static Texture texture(int id) {
+        Image image = new Image(Image.Format.RGBA8, 4, 4, BufferUtils.createByteBuffer(4 * 4 * 4), ColorSpace.Linear);
+        image.setId(id);
+        Texture2D texture = new Texture2D(image);
+        texture.setMinFilter(Texture.MinFilter.BilinearNoMipMaps);
+        return texture;
+    }
+}
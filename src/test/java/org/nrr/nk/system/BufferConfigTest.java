@@ -0,0 +1,193 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk.system;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of {@link BufferConfig}: the buffers double when they are full, halve
+ * only after a whole shrink period below a quarter of their size, and never
+ * shrink below the size given to the builder.
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+class BufferConfigTest {
+    
+    private BufferConfig config;
+    
+    @BeforeEach
+    void setUp() {
+        config = BufferConfig.builder()
+                    .maxVertexBuffer(64 * 1024)
+                    .maxElementBuffer(32 * 1024)
+                    .shrinkDelay(4);
+        config.managedUpdate();
+    }
+    
+    @Test
+    void growsTheBuffersThatOverflow() {
+        assertTrue(config.grow(true, false));
+        assertTrue(config.needsUpdate());
+        assertEquals(128 * 1024, config.getMaxVertexBuffer());
+        assertEquals(32 * 1024, config.getMaxElementBuffer());
+        config.managedUpdate();
+        
+        assertTrue(config.grow(false, true));
+        assertEquals(128 * 1024, config.getMaxVertexBuffer());
+        assertEquals(64 * 1024, config.getMaxElementBuffer());
+        
+        assertFalse(config.grow(false, false));
+    }
+    
+    @Test
+    void growsAnEmptyBuffer() {
+        BufferConfig empty = BufferConfig.builder();
+        assertTrue(empty.grow(true, true));
+        assertTrue(empty.getMaxVertexBuffer() > 0);
+        assertTrue(empty.getMaxElementBuffer() > 0);
+    }
+    
+    @Test
+    void stopsGrowingAtTheLargestSize() {
+        BufferConfig large = BufferConfig.builder()
+                                .maxVertexBuffer(Integer.MAX_VALUE / 2 + 1)
+                                .maxElementBuffer(Integer.MAX_VALUE / 2 + 1);
+        assertFalse(large.grow(true, true));
+        assertEquals(Integer.MAX_VALUE / 2 + 1, large.getMaxVertexBuffer());
+    }
+    
+    @Test
+    void shrinksOnlyAfterTheShrinkDelay() {
+        config.grow(true, true);
+        config.grow(true, true);
+        config.managedUpdate();
+        assertEquals(256 * 1024, config.getMaxVertexBuffer());
+        assertEquals(128 * 1024, config.getMaxElementBuffer());
+        
+        for (int i = 0; i < 3; i++) {
+            config.track(1024, 1024);
+            assertFalse(config.needsUpdate());
+            assertEquals(256 * 1024, config.getMaxVertexBuffer());
+        }
+        
+        config.track(1024, 1024);
+        assertTrue(config.needsUpdate());
+        assertEquals(128 * 1024, config.getMaxVertexBuffer());
+        assertEquals(64 * 1024, config.getMaxElementBuffer());
+    }
+    
+    @Test
+    void keepsTheBuffersUsedAboveAQuarter() {
+        config.grow(true, true);
+        config.managedUpdate();
+        
+        // a single conversion above a quarter keeps the whole period
+        config.track(1024, 1024);
+        config.track(32 * 1024, 16 * 1024);
+        config.track(1024, 1024);
+        config.track(1024, 1024);
+        assertFalse(config.needsUpdate());
+        assertEquals(128 * 1024, config.getMaxVertexBuffer());
+        assertEquals(64 * 1024, config.getMaxElementBuffer());
+        
+        // each buffer shrinks on its own
+        config.track(1024, 16 * 1024);
+        config.track(1024, 1024);
+        config.track(1024, 1024);
+        config.track(1024, 1024);
+        assertTrue(config.needsUpdate());
+        assertEquals(64 * 1024, config.getMaxVertexBuffer());
+        assertEquals(64 * 1024, config.getMaxElementBuffer());
+    }
+    
+    @Test
+    void restartsThePeriodWhenGrowing() {
+        config.grow(true, true);
+        config.managedUpdate();
+        
+        config.track(1024, 1024);
+        config.track(1024, 1024);
+        config.track(1024, 1024);
+        config.grow(true, false);
+        config.managedUpdate();
+        
+        config.track(1024, 1024);
+        assertFalse(config.needsUpdate());
+        assertEquals(256 * 1024, config.getMaxVertexBuffer());
+    }
+    
+    @Test
+    void neverShrinksBelowTheInitialSize() {
+        for (int i = 0; i < 40; i++) {
+            config.track(0, 0);
+        }
+        assertFalse(config.needsUpdate());
+        assertEquals(64 * 1024, config.getMaxVertexBuffer());
+        assertEquals(32 * 1024, config.getMaxElementBuffer());
+        
+        config.grow(true, true);
+        for (int i = 0; i < 40; i++) {
+            config.track(0, 0);
+        }
+        assertEquals(64 * 1024, config.getMaxVertexBuffer());
+        assertEquals(32 * 1024, config.getMaxElementBuffer());
+    }
+    
+    @Test
+    void keepsTheSizeWithoutAutoResize() {
+        config.autoResize(false).grow(true, true);
+        config.managedUpdate();
+        for (int i = 0; i < 40; i++) {
+            config.track(0, 0);
+        }
+        assertFalse(config.needsUpdate());
+        assertEquals(128 * 1024, config.getMaxVertexBuffer());
+    }
+    
+    @Test
+    void tracksTheHighWater() {
+        config.track(1000, 200);
+        config.track(300, 900);
+        config.track(500, 500);
+        assertEquals(1000, config.getVertexHighWater());
+        assertEquals(900, config.getElementHighWater());
+    }
+    
+    @Test
+    void rejectsANonPositiveShrinkDelay() {
+        assertThrows(IllegalArgumentException.class, () -> config.shrinkDelay(0));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk.system;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of {@link DrawList}: consecutive commands are merged only when they
+ * share the texture, the group and the clipping rectangle, and their elements
+ * are contiguous.
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+class DrawListTest {
+    
+    private DrawList list;
+    
+    @BeforeEach
+    void setUp() {
+        list = new DrawList();
+        assertFalse(list.add(1, 0, 0, 100, 50, 0, 6, 0));
+    }
+    
+    @Test
+    void mergesCompatibleCommands() {
+        assertTrue(list.add(1, 0, 0, 100, 50, 6, 12, 0));
+        assertTrue(list.add(1, 0, 0, 100, 50, 18, 3, 0));
+        
+        assertEquals(1, list.size());
+        assertEquals(3, list.getCommandCount());
+        assertEquals(2, list.getMergedCount());
+        assertEquals(0, list.getOffset(0));
+        assertEquals(21, list.getCount(0));
+    }
+    
+    @Test
+    void keepsCommandsWithAnotherTexture() {
+        assertFalse(list.add(2, 0, 0, 100, 50, 6, 12, 0));
+        assertDraws();
+        assertEquals(2, list.getTexture(1));
+    }
+    
+    @Test
+    void keepsCommandsOfAnotherGroup() {
+        assertFalse(list.add(1, 0, 0, 100, 50, 6, 12, 1));
+        assertDraws();
+        assertEquals(1, list.getGroup(1));
+    }
+    
+    @Test
+    void keepsCommandsWithAnotherClip() {
+        assertFalse(list.add(1, 1, 0, 100, 50, 6, 12, 0));
+        assertFalse(list.add(1, 1, 2, 100, 50, 18, 12, 0));
+        assertFalse(list.add(1, 1, 2, 99, 50, 30, 12, 0));
+        assertFalse(list.add(1, 1, 2, 99, 49, 42, 12, 0));
+        
+        assertEquals(5, list.size());
+        assertEquals(0, list.getMergedCount());
+        assertEquals(49, list.getClipHeight(4));
+    }
+    
+    @Test
+    void keepsCommandsWithNonContiguousElements() {
+        assertFalse(list.add(1, 0, 0, 100, 50, 9, 12, 0));
+        assertDraws();
+        assertEquals(9, list.getOffset(1));
+        
+        // an overlapping range is not contiguous either
+        assertFalse(list.add(1, 0, 0, 100, 50, 18, 3, 0));
+        assertEquals(3, list.size());
+    }
+    
+    @Test
+    void keepsCommandsWhenMergingIsDisabled() {
+        list.clear().merge(false);
+        assertFalse(list.add(1, 0, 0, 100, 50, 0, 6, 0));
+        assertFalse(list.add(1, 0, 0, 100, 50, 6, 12, 0));
+        assertDraws();
+    }
+    
+    /**
+     * Check that the second command was kept as its own draw.
+     */
+    private void assertDraws() {
+        assertEquals(2, list.size());
+        assertEquals(0, list.getMergedCount());
+        assertEquals(6, list.getCount(0));
+        assertEquals(12, list.getCount(1));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk.system;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of {@link QualityGovernor}, driven by simulated frame times: the
+ * quality steps down when the average of a window goes over the budget, and
+ * steps back up only when it stays below the headroom.
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+class QualityGovernorTest {
+    
+    private QualityProfile high;
+    private QualityProfile medium;
+    private QualityProfile low;
+    private QualityGovernor governor;
+    
+    @BeforeEach
+    void setUp() {
+        high   = QualityProfile.high();
+        medium = QualityProfile.medium();
+        low    = QualityProfile.low();
+        governor = new QualityGovernor(2.0f, high, medium, low)
+                        .window(4)
+                        .headroom(0.5f);
+    }
+    
+    @Test
+    void decidesOnlyAtTheEndOfAWindow() {
+        assertFalse(governor.update(10));
+        assertFalse(governor.update(10));
+        assertFalse(governor.update(10));
+        assertSame(high, governor.getProfile());
+        
+        assertTrue(governor.update(10));
+        assertSame(medium, governor.getProfile());
+    }
+    
+    @Test
+    void averagesTheWindow() {
+        // a single slow frame does not bring the average over the budget
+        assertEquals(0, frames(3, 1.0f) + frames(1, 4.5f));
+        assertSame(high, governor.getProfile());
+        
+        assertEquals(1, frames(2, 1.0f) + frames(2, 3.5f));
+        assertSame(medium, governor.getProfile());
+    }
+    
+    @Test
+    void stepsDownUnderLoad() {
+        assertEquals(1, frames(4, 3.0f));
+        assertEquals(1, governor.getLevel());
+        assertEquals(1, frames(4, 3.0f));
+        assertSame(low, governor.getProfile());
+        
+        // the lowest profile is kept
+        assertEquals(0, frames(8, 3.0f));
+        assertSame(low, governor.getProfile());
+    }
+    
+    @Test
+    void stepsUpWithHeadroom() {
+        frames(8, 3.0f);
+        assertSame(low, governor.getProfile());
+        
+        // within the budget but above the headroom, the quality is kept
+        assertEquals(0, frames(8, 1.5f));
+        assertSame(low, governor.getProfile());
+        
+        assertEquals(1, frames(4, 0.5f));
+        assertSame(medium, governor.getProfile());
+        assertEquals(1, frames(4, 0.5f));
+        assertSame(high, governor.getProfile());
+        
+        // the highest profile is kept
+        assertEquals(0, frames(8, 0.5f));
+        assertSame(high, governor.getProfile());
+    }
+    
+    @Test
+    void followsTheBudget() {
+        frames(4, 3.0f);
+        assertSame(medium, governor.getProfile());
+        
+        governor.budget(8.0f);
+        assertEquals(1, frames(4, 3.0f));
+        assertSame(high, governor.getProfile());
+    }
+    
+    @Test
+    void resetsToTheHighestQuality() {
+        frames(4, 3.0f);
+        frames(2, 3.0f);
+        governor.reset();
+        assertSame(high, governor.getProfile());
+        
+        // the frames before the reset are not averaged
+        assertEquals(0, frames(3, 3.0f));
+        assertEquals(1, frames(1, 3.0f));
+    }
+    
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new QualityGovernor(2.0f, new QualityProfile[0]));
+        assertThrows(IllegalArgumentException.class, () -> governor.window(0));
+    }
+    
+    /**
+     * Register frames that took the same time.
+     * 
+     * @param count number of frames
+     * @param millis time of each frame
+     * @return number of changes of the profile
+     */
+    private int frames(int count, float millis) {
+        int changes = 0;
+        for (int i = 0; i < count; i++) {
+            if (governor.update(millis)) {
+                changes++;
+            }
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk.test;
+
+import com.jme3.util.BufferUtils;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.nrr.nk.system.Vertex;
+
+/**
+ * Benchmark that compares the scalar and Vector API implementations of
+ * {@link Vertex#make(java.nio.ByteBuffer, int, int)} on vertex counts typical
+ * of a user interface frame.
+ * <p>
+ * Run it with {@code gradlew vertexBenchmark -PvectorApi=true}, which builds the
+ * Vector API implementation and adds its module; without the property only the
+ * scalar implementation is measured.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class VertexBenchmark {
+    
+    /** Size in bytes of a Nuklear vertex. */
+    private static final int VERTEX_SIZE = 20;
+    /** Number of vertices measured. */
+    private static final int[] COUNTS = { 1_000, 10_000, 50_000, 200_000 };
+    /** Vertices converted per measurement. */
+    private static final long WORK = 50_000_000L;
+    
+    /**
+     * The main method; uses zero arguments in the args array.
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        System.out.println("Vector API supported: " + Vertex.isVectorSupported());
+        System.out.printf("%10s %16s %16s %10s%n", "vertices", "scalar (ns/v)", "vector (ns/v)", "speedup");
+        
+        for (int count : COUNTS) {
+            ByteBuffer vertices = createVertices(count);
+            Vertex vertex = new Vertex(count);
+            
+            double scalar = measure(vertex, vertices, count, false);
+            if (Vertex.isVectorSupported()) {
+                double vector = measure(vertex, vertices, count, true);
+                verify(vertices, count);
+                System.out.printf("%10d %16.3f %16.3f %9.2fx%n", count, scalar, vector, scalar / vector);
+            } else {
+                System.out.printf("%10d %16.3f %16s %10s%n", count, scalar, "-", "-");
+            }
+            
+            vertex.free();
+            BufferUtils.destroyDirectBuffer(vertices);
+        }
+    }
+    
+    /**
+     * Create vertices with random positions, coordinates and colors.
+     * 
+     * @param count int
+     * @return ByteBuffer
+     */
+    private static ByteBuffer createVertices(int count) {
+        Random random = new Random(count);
+        ByteBuffer vertices = BufferUtils.createByteBuffer(count * VERTEX_SIZE);
+        for (int i = 0; i < count; i++) {
+            vertices.putFloat(random.nextFloat() * 1920)
+                    .putFloat(random.nextFloat() * 1080)
+                    .putFloat(random.nextFloat())
+                    .putFloat(random.nextFloat())
+                    .putInt(random.nextInt());
+        }
+        return vertices.flip();
+    }
+    
+    /**
+     * Measure the average time needed to build a vertex.
+     * 
+     * @param vertex Vertex
+     * @param vertices ByteBuffer
+     * @param count int
+     * @param vector {@code true} to use the Vector API
+     * @return nanoseconds per vertex
+     */
+    private static double measure(Vertex vertex, ByteBuffer vertices, int count, boolean vector) {
+        Vertex.setVectorEnabled(vector);
+        long iterations = Math.max(1, WORK / count);
+        
+        // warm up
+        for (long i = 0; i < iterations; i++) {
+            vertex.clear().make(vertices, VERTEX_SIZE, count);
+        }
+        
+        long start = System.nanoTime();
+        for (long i = 0; i < iterations; i++) {
+            vertex.clear().make(vertices, VERTEX_SIZE, count);
+        }
+        return (System.nanoTime() - start) / (double) (iterations * count);
+    }
+    
+    /**
+     * Check that both implementations build the same vertices.
+     * 
+     * @param vertices ByteBuffer
+     * @param count int
+     */
+    private static void verify(ByteBuffer vertices, int count) {
+        Vertex scalar = new Vertex(count);
+        Vertex vector = new Vertex(count);
+        
+        Vertex.setVectorEnabled(false);
+        scalar.clear().make(vertices, VERTEX_SIZE, count);
+        Vertex.setVectorEnabled(true);
+        vector.clear().make(vertices, VERTEX_SIZE, count);
+        
+        if (!scalar.getPosition().equals(vector.getPosition()) 
+                || !scalar.getTexture().equals(vector.getTexture())) {
+            throw new IllegalStateException("The implementations build different coordinates");
+        }
+        for (int i = 0; i < count * 4; i++) {
+            if (Math.abs(scalar.getColor().get(i) - vector.getColor().get(i)) > 1e-6f) {
+                throw new IllegalStateException("The implementations build different colors");
+            }
+        }
+        
+        scalar.free();
+        vector.free();
+    }
+}
@@ -0,0 +1,195 @@
+/*
+BSD 3-Clause License
+
+Copyright (c) 2026, Night Rider
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are met:
+
+1. Redistributions of source code must retain the above copyright notice, this
+   list of conditions and the following disclaimer.
+
+2. Redistributions in binary form must reproduce the above copyright notice,
+   this list of conditions and the following disclaimer in the documentation
+   and/or other materials provided with the distribution.
+
+3. Neither the name of the copyright holder nor the names of its
+   contributors may be used to endorse or promote products derived from
+   this software without specific prior written permission.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE
+FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL
+DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER
+CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+*/
+package org.nrr.nk.system;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Implementation of {@link Vertex#make(java.nio.ByteBuffer, int, int)} with 
+ * the Vector API ({@code jdk.incubator.vector}).
+ * <p>
+ * The vertices are copied in blocks to an array; each attribute is then
+ * gathered from several vertices into the lanes of a vector and scattered to
+ * its place in the output arrays, the colors being unpacked and normalized in
+ * the lanes.
+ * </p>
+ * <p>
+ * This class is only built with {@code -PvectorApi=true} and {@link Vertex}
+ * only loads it, by reflection, when the module is present.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+final class VectorConverter implements VertexConverter {
+    
+    /** Vector shape used for the attributes. */
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    /** Number of vertices processed by each vector. */
+    private static final int LANES = SPECIES.length();
+    
+    /** Number of vertices copied in each block. */
+    private static final int BLOCK = 256;
+    /** Factor that normalizes a color channel. */
+    private static final float NORMALIZE = 1f / 255f;
+    
+    /** Position of each lane in the arrays of two components. */
+    private static final int[] SCATTER_2 = new int[LANES];
+    /** Position of each lane in the array of four components. */
+    private static final int[] SCATTER_4 = new int[LANES];
+    
+    static {
+        for (int i = 0; i < LANES; i++) {
+            SCATTER_2[i] = i * 2;
+            SCATTER_4[i] = i * 4;
+        }
+    }
+    
+    /** Block of vertices as written by Nuklear. */
+    private final int[] raw;
+    /** Block of positions. */
+    private final float[] position = new float[BLOCK * 2];
+    /** Block of texture coordinates. */
+    private final float[] texture  = new float[BLOCK * 2];
+    /** Block of colors. */
+    private final float[] color    = new float[BLOCK * 4];
+    
+    /** Position of the first integer of each lane in the block. */
+    private final int[] gather = new int[LANES];
+    /** Number of integers per vertex. */
+    private final int stride;
+
+    /**
+     * Constructor of the class <code>VectorConverter</code>.
+     * 
+     * @param vertexsize size in bytes of each vertex, multiple of 4
+     */
+    VectorConverter(int vertexsize) {
+        this.stride = vertexsize / Integer.BYTES;
+        this.raw    = new int[BLOCK * stride];
+        for (int i = 0; i < LANES; i++) {
+            gather[i] = i * stride;
+        }
+    }
+    
+    /*(non-Javadoc)
+     */
+    @Override
+    public int getVertexSize() {
+        return stride * Integer.BYTES;
+    }
+    
+    /*(non-Javadoc)
+     */
+    @Override
+    public void make(ByteBuffer vertices, int base, int count, FloatBuffer positions, FloatBuffer textures, FloatBuffer colors) {
+        IntBuffer source = vertices.slice(base, count * stride * Integer.BYTES)
+                                    .order(vertices.order())
+                                    .asIntBuffer();
+        
+        for (int done = 0; done < count; done += BLOCK) {
+            int n = Math.min(BLOCK, count - done);
+            source.get(raw, 0, n * stride);
+            
+            int i = 0;
+            for (; i <= n - LANES; i += LANES) {
+                int src = i * stride;
+                
+                copy(src, position, i * 2, SCATTER_2);
+                copy(src + 1, position, i * 2 + 1, SCATTER_2);
+                copy(src + 2, texture, i * 2, SCATTER_2);
+                copy(src + 3, texture, i * 2 + 1, SCATTER_2);
+                
+                IntVector rgba = IntVector.fromArray(SPECIES, raw, src + 4, gather, 0);
+                channel(rgba, 0, i * 4);
+                channel(rgba, 8, i * 4 + 1);
+                channel(rgba, 16, i * 4 + 2);
+                channel(rgba, 24, i * 4 + 3);
+            }
+            
+            // remaining vertices
+            for (; i < n; i++) {
+                int src = i * stride;
+                position[i * 2]     = Float.intBitsToFloat(raw[src]);
+                position[i * 2 + 1] = Float.intBitsToFloat(raw[src + 1]);
+                texture[i * 2]      = Float.intBitsToFloat(raw[src + 2]);
+                texture[i * 2 + 1]  = Float.intBitsToFloat(raw[src + 3]);
+                
+                int rgba = raw[src + 4];
+                color[i * 4]     = (rgba & 0xFF) * NORMALIZE;
+                color[i * 4 + 1] = ((rgba >> 8) & 0xFF) * NORMALIZE;
+                color[i * 4 + 2] = ((rgba >> 16) & 0xFF) * NORMALIZE;
+                color[i * 4 + 3] = ((rgba >> 24) & 0xFF) * NORMALIZE;
+            }
+            
+            positions.put(position, 0, n * 2);
+            textures.put(texture, 0, n * 2);
+            colors.put(color, 0, n * 4);
+        }
+    }
+    
+    /**
+     * Copy a float attribute of {@code LANES} vertices.
+     * 
+     * @param src position of the attribute of the first vertex in the block
+     * @param dst output array
+     * @param offset position of the first vertex in the output array
+     * @param scatter position of each lane in the output array
+     */
+    private void copy(int src, float[] dst, int offset, int[] scatter) {
+        IntVector.fromArray(SPECIES, raw, src, gather, 0)
+                 .reinterpretAsFloats()
+                 .intoArray(dst, offset, scatter, 0);
+    }
+    
+    /**
+     * Unpack and normalize a color channel of {@code LANES} vertices.
+     * 
+     * @param rgba packed colors
+     * @param shift position of the channel in bits
+     * @param offset position of the channel of the first vertex in the color array
+     */
+    private void channel(IntVector rgba, int shift, int offset) {
+        ((FloatVector) rgba.lanewise(VectorOperators.LSHR, shift)
+                           .and(0xFF)
+                           .convert(VectorOperators.I2F, 0))
+                .mul(NORMALIZE)
+                .intoArray(color, offset, SCATTER_4, 0);
+    }
+}